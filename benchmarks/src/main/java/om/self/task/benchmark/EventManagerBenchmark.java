@@ -0,0 +1,67 @@
+package om.self.task.benchmark;
+
+import om.self.task.core.EventManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EventManager#triggerEventRecursively(Enum)} over deep and wide hierarchies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventManagerBenchmark {
+    /**
+     * the number of levels below the root
+     */
+    @Param({"1", "10", "100"})
+    public int depth;
+
+    /**
+     * the number of children attached to each manager on the way down (only the first one goes deeper)
+     */
+    @Param({"1", "10"})
+    public int width;
+
+    /**
+     * the number of handlers attached to the START event of each manager
+     */
+    @Param({"1", "10"})
+    public int handlers;
+
+    private EventManager root;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        root = new EventManager("root");
+        EventManager current = root;
+
+        for (int d = 0; d < depth; d++) {
+            EventManager next = null;
+            for (int w = 0; w < width; w++) {
+                EventManager child = new EventManager("level " + d + " child " + w, current);
+                for (int h = 0; h < handlers; h++)
+                    child.attachToEvent(EventManager.CommonTrigger.START, "handler " + h, () -> counter++);
+                if(next == null) next = child;
+            }
+            current = next;
+        }
+    }
+
+    @Benchmark
+    public long triggerRecursively(){
+        root.triggerEventRecursively(EventManager.CommonTrigger.START);
+        return counter;
+    }
+
+    @Benchmark
+    public long triggerMissingEventRecursively(){
+        root.triggerEventRecursively(EventManager.CommonTrigger.STOP);
+        return counter;
+    }
+}
@@ -0,0 +1,74 @@
+package om.self.task.benchmark;
+
+import om.self.task.core.Group;
+import om.self.task.core.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of {@link Group#runKeyedCommand(String, Group.Command, Object...)} for the different commands while the group is full of other children.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupCommandBenchmark {
+    /**
+     * the number of children attached to the group
+     */
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private Group root;
+    private Group group;
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        root = new Group("root");
+        group = new Group("bench", root);
+        keys = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            keys[i] = "task " + i;
+            Task task = new Task(keys[i], group);
+            task.autoStart = false;
+            task.setRunnable(() -> {});
+        }
+
+        //keep one child running, so the group does not auto pause while the others are churned
+        group.runKeyedCommand(keys[0], Group.Command.START);
+        root.run();
+    }
+
+    private String nextKey(){
+        next++;
+        if(next == keys.length) next = 1;
+        return keys[next];
+    }
+
+    @Benchmark
+    public boolean startPause(){
+        String key = nextKey();
+        group.runKeyedCommand(key, Group.Command.START);
+        return group.runKeyedCommand(key, Group.Command.PAUSE);
+    }
+
+    @Benchmark
+    public boolean queStartPause(){
+        String key = nextKey();
+        group.runKeyedCommand(key, Group.Command.QUE_START);
+        group.runKeyedCommand(key, Group.Command.QUE_PAUSE);
+        group.run();
+        return group.isChildRunning(key);
+    }
+
+    @Benchmark
+    public boolean isChildRunning(){
+        return group.isChildRunning(nextKey());
+    }
+}
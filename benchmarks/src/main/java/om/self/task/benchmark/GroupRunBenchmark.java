@@ -0,0 +1,61 @@
+package om.self.task.benchmark;
+
+import om.self.task.core.Group;
+import om.self.task.core.Task;
+import om.self.task.core.TaskEx;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of one {@link Group#run()} tick over a flat group of always running children.
+ * Run with {@code -prof gc} to get the allocations per tick.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupRunBenchmark {
+    /**
+     * the number of children attached to (and running in) the group
+     */
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int size;
+
+    /**
+     * the type of the children
+     */
+    @Param({"TASK", "TASK_EX"})
+    public String type;
+
+    private Group group;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        group = new Group("bench");
+
+        for (int i = 0; i < size; i++) {
+            if(type.equals("TASK")) {
+                Task task = new Task("task " + i, group);
+                task.setRunnable(() -> counter++);
+            } else {
+                TaskEx task = new TaskEx("task " + i, group);
+                task.autoPause = false;
+                task.addStep(() -> counter++);
+                task.addStep(() -> counter++, () -> (counter & 1) == 0);
+            }
+        }
+
+        //drain the start commands so only the steady state is measured
+        group.run();
+    }
+
+    @Benchmark
+    public long tick(){
+        group.run();
+        return counter;
+    }
+}
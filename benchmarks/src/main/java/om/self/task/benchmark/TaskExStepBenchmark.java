@@ -0,0 +1,75 @@
+package om.self.task.benchmark;
+
+import om.self.task.core.TaskEx;
+import om.self.task.other.Que;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures step management on {@link TaskEx} and {@link Que} with long step lists.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskExStepBenchmark {
+    /**
+     * the number of steps in the task before each operation
+     */
+    @Param({"100", "10000", "100000"})
+    public int steps;
+
+    private TaskEx task;
+    private Que que;
+    private final Runnable step = () -> {};
+
+    @Setup(Level.Trial)
+    public void setup(){
+        task = new TaskEx("bench");
+        task.autoPause = false;
+        que = new Que("que");
+        que.autoPause = false;
+
+        for (int i = 0; i < steps; i++) {
+            task.addStep(step);
+            que.addStep(step);
+        }
+    }
+
+    @Benchmark
+    public int addRemoveLast(){
+        task.addStep(step);
+        task.removeStep(steps, false);
+        return task.getCurrentStep();
+    }
+
+    @Benchmark
+    public int addRemoveMiddle(){
+        task.addStep(step, () -> true, steps / 2);
+        task.removeStep(steps / 2, false);
+        return task.getCurrentStep();
+    }
+
+    @Benchmark
+    public int addRemoveFirst(){
+        task.addStep(step, () -> true, 0);
+        task.removeStep(0, false);
+        return task.getCurrentStep();
+    }
+
+    @Benchmark
+    public int advance(){
+        task.run();
+        return task.getCurrentStep();
+    }
+
+    @Benchmark
+    public int queAdvance(){
+        que.addStep(step);
+        que.run();
+        return que.getCurrentStep();
+    }
+}
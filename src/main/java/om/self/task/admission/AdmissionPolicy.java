@@ -0,0 +1,65 @@
+package om.self.task.admission;
+
+import om.self.task.core.Group;
+
+/**
+ * Decides what a {@link Group} does when a child is started while all {@link Group#getMaxActiveRunnables()} slots are used by active, sleeping or parked children.
+ * A policy can evict an active child to make room, remember the child so it is started once a slot frees up, or both.
+ * Every group needs its own instance because policies keep track of the children that are waiting.
+ */
+public interface AdmissionPolicy {
+    /**
+     * called when a child is started while the group is full
+     * @param group the group the child is started in
+     * @param key the key of the child that wants to start
+     * @param force whether the start was forced
+     * @return the key of the active child to remove so the child can start now, or null if the child should not start now
+     */
+    String onFull(Group group, String key, boolean force);
+
+    /**
+     * called when a slot frees up to get the next waiting child to start
+     * @param group the group with the free slot
+     * @return the key of the child to start or null if nothing is waiting
+     */
+    default String nextWaiting(Group group){
+        return null;
+    }
+
+    /**
+     * called after a child was added to the active runnables
+     * @param group the group the child started in
+     * @param key the key of the child
+     */
+    default void onStarted(Group group, String key){}
+
+    /**
+     * called when a child is paused or detached, whether it was active or waiting, and when it is put to sleep or parked(see {@link Group#sleepChild(String, long)}). The policy should forget the child until it is started again.
+     * @param group the group the child was paused in
+     * @param key the key of the child
+     */
+    default void onPaused(Group group, String key){}
+
+    /**
+     * called at the start of every tick after the queued group actions ran
+     * @param group the group that is running
+     */
+    default void onTick(Group group){}
+
+    /**
+     * checks if a child is waiting for a slot
+     * @param key the key of the child
+     * @return whether the child is waiting
+     */
+    default boolean isWaiting(String key){
+        return false;
+    }
+
+    /**
+     * gets the number of children waiting for a slot
+     * @return the number of waiting children
+     */
+    default int getWaitingCount(){
+        return 0;
+    }
+}
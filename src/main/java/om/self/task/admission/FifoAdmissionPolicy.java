@@ -0,0 +1,65 @@
+package om.self.task.admission;
+
+import om.self.task.core.Group;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Puts children that can't start into a first in first out wait queue and starts them as slots free up.
+ * Forced starts remove the child that has been active the longest and put it at the back of the wait queue(if no child is active because the sleeping and parked children keep every slot then the started child waits instead).
+ */
+public class FifoAdmissionPolicy implements AdmissionPolicy {
+    private final LinkedHashSet<String> waiting = new LinkedHashSet<>();
+
+    @Override
+    public String onFull(Group group, String key, boolean force) {
+        if(!force){
+            waiting.add(key);
+            return null;
+        }
+
+        //every slot can be kept by sleeping or parked children, then there is nothing to remove
+        String evicted = group.getActiveRunnables().firstKey();
+        addWaiting(evicted != null ? evicted : key);
+        return evicted;
+    }
+
+    @Override
+    public String nextWaiting(Group group) {
+        Iterator<String> iterator = waiting.iterator();
+        if(!iterator.hasNext()) return null;
+
+        String next = iterator.next();
+        iterator.remove();
+        return next;
+    }
+
+    @Override
+    public void onStarted(Group group, String key) {
+        waiting.remove(key);
+    }
+
+    @Override
+    public void onPaused(Group group, String key) {
+        waiting.remove(key);
+    }
+
+    @Override
+    public boolean isWaiting(String key) {
+        return waiting.contains(key);
+    }
+
+    @Override
+    public int getWaitingCount() {
+        return waiting.size();
+    }
+
+    /**
+     * adds a child to the back of the wait queue(if it is already waiting then it keeps its place)
+     * @param key the key of the child
+     */
+    protected void addWaiting(String key){
+        waiting.add(key);
+    }
+}
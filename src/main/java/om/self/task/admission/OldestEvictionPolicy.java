@@ -0,0 +1,15 @@
+package om.self.task.admission;
+
+import om.self.task.core.Group;
+
+/**
+ * Rejects starts that aren't forced and makes room for forced starts by removing the child that has been active the longest.
+ * Nothing is remembered, so a rejected or evicted child stays paused until it is started again. This is the default policy of {@link Group}.
+ */
+public class OldestEvictionPolicy implements AdmissionPolicy {
+    @Override
+    public String onFull(Group group, String key, boolean force) {
+        if(!force) return null;
+        return group.getActiveRunnables().firstKey();
+    }
+}
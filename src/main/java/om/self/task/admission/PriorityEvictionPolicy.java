@@ -0,0 +1,119 @@
+package om.self.task.admission;
+
+import om.self.task.core.Group;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * Gives every child a priority(higher runs first). When the group is full, the active child with the lowest priority is removed if the new child has a higher priority or the start is forced, otherwise the new child waits.
+ * Removed children wait as well, and the waiting child with the highest priority(then the one that waited the longest) is started when a slot frees up.
+ */
+public class PriorityEvictionPolicy implements AdmissionPolicy {
+    private final HashMap<String, Integer> priorities = new HashMap<>();
+    private final HashMap<String, Waiter> waiters = new HashMap<>();
+    private final TreeSet<Waiter> waiting = new TreeSet<>(
+            Comparator.comparingInt((Waiter w) -> -w.priority).thenComparingLong(w -> w.order)
+    );
+    private long nextOrder = 0;
+
+    /**
+     * the priority of children that don't have one set
+     */
+    public int defaultPriority = 0;
+
+
+    //----------GETTER and SETTER----------//
+    /**
+     * gets the priority of a child
+     * @param key the key of the child
+     * @return the priority or {@link PriorityEvictionPolicy#defaultPriority} if none is set
+     */
+    public int getPriority(String key){
+        return priorities.getOrDefault(key, defaultPriority);
+    }
+
+    /**
+     * sets the priority of a child(if it is waiting then it is moved to its new place)
+     * @param key the key of the child
+     * @param priority the priority(higher runs first)
+     */
+    public void setPriority(String key, int priority){
+        priorities.put(key, priority);
+        if(waiters.containsKey(key)){
+            removeWaiting(key);
+            addWaiting(key);
+        }
+    }
+
+
+    //----------IMPLEMENT AdmissionPolicy----------//
+    @Override
+    public String onFull(Group group, String key, boolean force) {
+        String lowest = null;
+        int lowestPriority = Integer.MAX_VALUE;
+        //the keys are in start order, so the oldest child wins ties
+        for (String active : group.getActiveRunnables().snapshot().keys()) {
+            int priority = getPriority(active);
+            if(priority < lowestPriority){
+                lowest = active;
+                lowestPriority = priority;
+            }
+        }
+
+        if(lowest != null && (force || lowestPriority < getPriority(key))){
+            addWaiting(lowest);
+            return lowest;
+        }
+
+        addWaiting(key);
+        return null;
+    }
+
+    @Override
+    public String nextWaiting(Group group) {
+        Waiter next = waiting.pollFirst();
+        if(next == null) return null;
+
+        waiters.remove(next.key);
+        return next.key;
+    }
+
+    @Override
+    public void onStarted(Group group, String key) {
+        removeWaiting(key);
+    }
+
+    @Override
+    public void onPaused(Group group, String key) {
+        removeWaiting(key);
+    }
+
+    @Override
+    public boolean isWaiting(String key) {
+        return waiters.containsKey(key);
+    }
+
+    @Override
+    public int getWaitingCount() {
+        return waiters.size();
+    }
+
+
+    //----------WAITING----------//
+    private void addWaiting(String key){
+        if(waiters.containsKey(key)) return;
+
+        Waiter waiter = new Waiter(key, getPriority(key), nextOrder++);
+        waiters.put(key, waiter);
+        waiting.add(waiter);
+    }
+
+    private void removeWaiting(String key){
+        Waiter waiter = waiters.remove(key);
+        if(waiter != null) waiting.remove(waiter);
+    }
+
+    private record Waiter(String key, int priority, long order) {}
+}
@@ -0,0 +1,103 @@
+package om.self.task.admission;
+
+import om.self.task.core.Group;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Time slices the group when more children want to run than there are slots.
+ * Children that can't start wait in a first in first out queue, and while anything is waiting, every active child is paused and put at the back of the queue once it used up its slice({@link WeightedRoundRobinPolicy#getSliceTicks()} times its weight in ticks).
+ * Paused children keep their state, so a {@link om.self.task.core.TaskEx} continues at the same step once it gets a slot again.
+ */
+public class WeightedRoundRobinPolicy extends FifoAdmissionPolicy {
+    private final HashMap<String, Integer> weights = new HashMap<>();
+    private final HashMap<String, int[]> remainingTicks = new HashMap<>();
+    private final ArrayList<String> expired = new ArrayList<>();
+    private int sliceTicks;
+
+    /**
+     * Constructor that sets the number of ticks a child with a weight of 1 runs before it has to give up its slot
+     * @param sliceTicks the ticks per slice(anything less than 1 is 1)
+     */
+    public WeightedRoundRobinPolicy(int sliceTicks) {
+        setSliceTicks(sliceTicks);
+    }
+
+
+    //----------GETTER and SETTER----------//
+    /**
+     * gets the number of ticks a child with a weight of 1 runs before it has to give up its slot
+     * @return the ticks per slice
+     */
+    public int getSliceTicks() {
+        return sliceTicks;
+    }
+
+    /**
+     * sets the number of ticks a child with a weight of 1 runs before it has to give up its slot(only affects slices that start after this)
+     * @param sliceTicks the ticks per slice(anything less than 1 is 1)
+     */
+    public void setSliceTicks(int sliceTicks) {
+        this.sliceTicks = Math.max(sliceTicks, 1);
+    }
+
+    /**
+     * gets the weight of a child
+     * @param key the key of the child
+     * @return the weight(1 if none is set)
+     */
+    public int getWeight(String key){
+        return weights.getOrDefault(key, 1);
+    }
+
+    /**
+     * sets the weight of a child, which multiplies the length of its slices
+     * @param key the key of the child
+     * @param weight the weight(anything less than 1 is 1)
+     */
+    public void setWeight(String key, int weight){
+        weights.put(key, Math.max(weight, 1));
+    }
+
+
+    //----------IMPLEMENT AdmissionPolicy----------//
+    @Override
+    public String onFull(Group group, String key, boolean force) {
+        String evicted = super.onFull(group, key, force);
+        if(evicted != null) remainingTicks.remove(evicted);
+        return evicted;
+    }
+
+    @Override
+    public void onStarted(Group group, String key) {
+        super.onStarted(group, key);
+        remainingTicks.put(key, new int[]{getWeight(key) * sliceTicks});
+    }
+
+    @Override
+    public void onPaused(Group group, String key) {
+        super.onPaused(group, key);
+        remainingTicks.remove(key);
+    }
+
+    @Override
+    public void onTick(Group group) {
+        if(getWaitingCount() == 0) return;
+
+        for (Map.Entry<String, int[]> entry : remainingTicks.entrySet()) {
+            if(--entry.getValue()[0] <= 0) expired.add(entry.getKey());
+        }
+
+        //the slices are ended after iterating because starting the next child changes remainingTicks
+        for (String key : expired) {
+            if(getWaitingCount() == 0) break;
+            //preempted instead of paused, so the child keeps its completion future while it waits
+            remainingTicks.remove(key);
+            group.preemptChild(key);
+            addWaiting(key);
+        }
+        expired.clear();
+    }
+}
@@ -0,0 +1,229 @@
+package om.self.task.core;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * The registry {@link Group} uses to store its active runnables.
+ * Lookups go straight to a {@link ConcurrentHashMap} and never lock, and iteration goes over an immutable {@link Snapshot} in the order the runnables were added, so the registry can be changed from any thread while it is being iterated without blocking the iterating thread or throwing {@link ConcurrentModificationException}.
+ * The snapshot is only rebuilt the first time it is requested after a change, and a rebuild only replaces the published snapshot if it saw more changes, so two threads rebuilding at the same time can't publish an older view over a newer one.
+ */
+public class ActiveRunnableRegistry extends AbstractMap<String, Runnable> {
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger removedEntries = new AtomicInteger();
+
+    /**
+     * counts every change, so a snapshot knows which changes it includes
+     */
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<Published> published = new AtomicReference<>(new Published(0, Snapshot.EMPTY));
+
+    private final EntrySet entrySet = new EntrySet();
+
+
+    //----------ACCESS----------//
+    @Override
+    public Runnable get(Object key) {
+        Entry entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * gets the key that has been in the registry the longest
+     * @return the oldest key or null if the registry is empty
+     */
+    public String firstKey(){
+        Snapshot current = snapshot();
+        return current.keys.length == 0 ? null : current.keys[0];
+    }
+
+    /**
+     * gets an immutable view of the registry in insertion order. The same snapshot is returned until the registry changes.
+     * @return the current snapshot
+     */
+    public Snapshot snapshot(){
+        Published current = published.get();
+        if(current.version != version.get()) return rebuildSnapshot();
+        return current.snapshot;
+    }
+
+
+    //----------MODIFY----------//
+    /**
+     * adds a runnable to the end of the registry. If the key is already stored with the same runnable then nothing changes.
+     * @param key the key of the runnable
+     * @param value the runnable
+     * @return the runnable previously stored with the key or null
+     */
+    @Override
+    public Runnable put(String key, Runnable value) {
+        if(key == null || value == null) throw new NullPointerException();
+
+        Entry previous = entries.get(key);
+        if(previous != null && previous.value == value) return value;
+
+        Entry entry = new Entry(key, value);
+        previous = entries.put(key, entry);
+        if(previous != null) markRemoved(previous);
+        order.add(entry);
+        version.incrementAndGet();
+        return previous == null ? null : previous.value;
+    }
+
+    @Override
+    public Runnable remove(Object key) {
+        Entry entry = entries.remove(key);
+        if(entry == null) return null;
+
+        markRemoved(entry);
+        version.incrementAndGet();
+        return entry.value;
+    }
+
+    @Override
+    public void clear() {
+        for (String key : entries.keySet())
+            remove(key);
+    }
+
+    private void markRemoved(Entry entry){
+        entry.removed = true;
+        //removed entries are normally dropped when the snapshot is rebuilt, but they are also purged here so the order can't grow forever when nothing iterates
+        if(removedEntries.incrementAndGet() > entries.size() + 64) purgeRemoved();
+    }
+
+
+    //----------SNAPSHOT----------//
+    private void purgeRemoved(){
+        removedEntries.set(0);
+        order.removeIf(entry -> entry.removed);
+    }
+
+    private Snapshot rebuildSnapshot(){
+        //read before the order so any change made during the rebuild causes another rebuild
+        long built = version.get();
+
+        ArrayList<Entry> live = new ArrayList<>(entries.size());
+        for (Iterator<Entry> iterator = order.iterator(); iterator.hasNext();) {
+            Entry entry = iterator.next();
+            if(entry.removed) iterator.remove();
+            else live.add(entry);
+        }
+        removedEntries.set(0);
+
+        String[] keys = new String[live.size()];
+        Runnable[] runnables = new Runnable[live.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = live.get(i).key;
+            runnables[i] = live.get(i).value;
+        }
+        Snapshot snapshot = new Snapshot(keys, runnables);
+
+        Published next = new Published(built, snapshot);
+        while(true){
+            Published current = published.get();
+            //another thread already published a snapshot that includes at least the same changes
+            if(current.version >= built) return current.snapshot;
+            if(published.compareAndSet(current, next)) return snapshot;
+        }
+    }
+
+
+    //----------IMPLEMENT Map----------//
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Runnable> action) {
+        Snapshot current = snapshot();
+        for (int i = 0; i < current.keys.length; i++)
+            action.accept(current.keys[i], current.runnables[i]);
+    }
+
+    @Override
+    public Set<Map.Entry<String, Runnable>> entrySet() {
+        return entrySet;
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<String, Runnable>> {
+        @Override
+        public Iterator<Map.Entry<String, Runnable>> iterator() {
+            Snapshot current = snapshot();
+            return new Iterator<>() {
+                private int i = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return i < current.keys.length;
+                }
+
+                @Override
+                public Map.Entry<String, Runnable> next() {
+                    if(!hasNext()) throw new NoSuchElementException();
+                    Map.Entry<String, Runnable> entry = new SimpleImmutableEntry<>(current.keys[i], current.runnables[i]);
+                    i++;
+                    return entry;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return snapshot().size();
+        }
+    }
+
+
+    //----------Other----------//
+    /**
+     * a snapshot with the version it was built at
+     */
+    private record Published(long version, Snapshot snapshot) {}
+
+    private static final class Entry {
+        private final String key;
+        private final Runnable value;
+        private volatile boolean removed = false;
+
+        private Entry(String key, Runnable value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * An immutable view of the registry where {@code keys[i]} is the key of {@code runnables[i]}.
+     * @param keys the keys in insertion order
+     * @param runnables the runnables in insertion order
+     * @apiNote DO NOT modify the arrays because they are shared by everything that reads the same snapshot.
+     */
+    public record Snapshot(String[] keys, Runnable[] runnables) {
+        private static final Snapshot EMPTY = new Snapshot(new String[0], new Runnable[0]);
+
+        /**
+         * gets the number of runnables in the snapshot
+         * @return the size
+         */
+        public int size(){
+            return keys.length;
+        }
+    }
+}
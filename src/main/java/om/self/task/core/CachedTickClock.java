@@ -0,0 +1,21 @@
+package om.self.task.core;
+
+/**
+ * A {@link TickClock} that reads {@link System#nanoTime()} once every tick and returns that time until the next tick.
+ * This is the clock root groups use when no clock is set.
+ */
+public class CachedTickClock implements TickClock {
+    private volatile long now = System.nanoTime();
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public void tick() {
+        long time = System.nanoTime();
+        //only one thread normally ticks a clock, but the time should never go back if two do
+        if(time - now > 0) now = time;
+    }
+}
@@ -0,0 +1,43 @@
+package om.self.task.core;
+
+import java.lang.ref.Cleaner;
+
+/**
+ * An event that carries a value to its handlers(see {@link EventChannel}, {@link IntEventChannel} and {@link DoubleEventChannel}).
+ * Every channel is its own event with its own id, even if another channel or a named event has the same name, so channels are usually kept in static final fields and shared by everything that publishes or handles them.
+ * Channels can also be created while running: the id of a channel is given back once the channel is garbage collected, and a manager keeps a channel alive while it has handlers for it, so an id is never shared by two channels and the channel tables of the managers only grow to the most channels alive at once.
+ */
+public abstract sealed class Channel permits EventChannel, IntEventChannel, DoubleEventChannel {
+    private static final Cleaner cleaner = Cleaner.create();
+
+    private final String name;
+    /**
+     * the index of the handlers of this channel in every {@link EventManager}
+     */
+    final int id = EventManager.nextChannelId();
+
+
+    //----------CONSTRUCTOR----------//
+    Channel(String name) {
+        if(name == null) throw new IllegalArgumentException("name can not be null!");
+        this.name = name;
+        //the action only captures the id, otherwise the channel would never become unreachable
+        int id = this.id;
+        cleaner.register(this, () -> EventManager.releaseChannelId(id));
+    }
+
+
+    //----------GETTER and SETTER----------//
+    /**
+     * gets the name of this channel
+     * @return the name(only used for info)
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " " + name;
+    }
+}
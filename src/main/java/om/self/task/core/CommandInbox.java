@@ -0,0 +1,99 @@
+package om.self.task.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free queue of actions that any number of threads can add to and only the thread running the {@link Group} takes from.
+ * Every slot has a sequence number that says whose turn it is: a producer claims a slot by moving the tail forward with one CAS and then publishes the action by moving the sequence of the slot, and the consumer only takes slots that have been published.
+ * Nothing is allocated per action and a full inbox is reported to the producer instead of growing or blocking.
+ */
+final class CommandInbox {
+    private final int mask;
+    private final AtomicReferenceArray<Runnable> actions;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * only changed by the consumer, but read by producers for {@link CommandInbox#size()}
+     */
+    private volatile long head = 0;
+
+    /**
+     * @param capacity the maximum number of actions(rounded up to a power of 2, at most 2^30)
+     */
+    CommandInbox(int capacity) {
+        if(capacity <= 0) throw new IllegalArgumentException("capacity must be more than 0!");
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(Math.min(capacity, 1 << 30) - 1) << 1;
+        mask = size - 1;
+        actions = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequences.set(i, i);
+    }
+
+
+    //----------ACCESS----------//
+    int capacity(){
+        return mask + 1;
+    }
+
+    /**
+     * gets the number of actions waiting(only an estimate while other threads are adding)
+     * @return the number of actions
+     */
+    int size(){
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    boolean isEmpty(){
+        return tail.get() == head;
+    }
+
+
+    //----------OFFER/POLL----------//
+    /**
+     * adds an action(this can be called from any thread)
+     * @param action the action
+     * @return false if the inbox is full
+     */
+    boolean offer(Runnable action){
+        long position = tail.get();
+        int index;
+        while(true){
+            index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+
+            if(difference == 0){
+                if(tail.compareAndSet(position, position + 1)) break;
+                position = tail.get();
+            } else if(difference < 0){
+                //the slot still holds an action from the last lap, so the inbox is full
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+
+        actions.setPlain(index, action);
+        sequences.setRelease(index, position + 1);
+        return true;
+    }
+
+    /**
+     * takes the oldest action(this must only be called by the thread running the group)
+     * @return the action or null if there is nothing published yet
+     */
+    Runnable poll(){
+        long position = head;
+        int index = (int) position & mask;
+        if(sequences.getAcquire(index) != position + 1) return null;
+
+        Runnable action = actions.getPlain(index);
+        actions.setPlain(index, null);
+        sequences.setRelease(index, position + mask + 1);
+        head = position + 1;
+        return action;
+    }
+}
@@ -0,0 +1,22 @@
+package om.self.task.core;
+
+/**
+ * A channel of doubles that handlers get as a {@link java.util.function.DoubleConsumer}, so the values are never boxed(see {@link EventManager#attachToChannel(DoubleEventChannel, String, java.util.function.DoubleConsumer)} and {@link EventManager#publish(DoubleEventChannel, double)}).
+ */
+public final class DoubleEventChannel extends Channel {
+    /**
+     * Constructor that sets the name of this channel
+     * @param name the name of this channel(only used for info)
+     */
+    public DoubleEventChannel(String name) {
+        super(name);
+    }
+
+    /**
+     * Constructor that uses the name of an event as the name of this channel
+     * @param event the event(see {@link EventManager.CommonTrigger})
+     */
+    public DoubleEventChannel(Enum<?> event) {
+        super(event.name());
+    }
+}
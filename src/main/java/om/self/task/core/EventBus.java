@@ -0,0 +1,465 @@
+package om.self.task.core;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The queued mode of an {@link EventManager}(see {@link EventManager#enableBus(int)}).
+ * While the bus is enabled, {@link EventManager#triggerEvent(int)} and {@link EventManager#triggerEventRecursively(int)} only put the event id in a ring buffer that is created once, so triggering from any thread is a CAS and two writes and never waits for the handlers.
+ * A consumer takes the events out in batches and runs the handlers, either on its own thread(see {@link EventBus#start()}) or on whatever thread calls {@link EventBus#runBatch()}.
+ * If coalescing is on, an event that is triggered more than once in the same batch is only delivered once.
+ * @implNote when the buffer is full, producers wait for space with the {@link WaitStrategy} of the bus while the consumer is running. A handler that triggers an event delivers it right away instead, so it can't deadlock the bus, and if the consumer is not running(or the bus was disabled) the producer runs a batch itself to make space, so the handlers of that batch run on the producer.
+ */
+public class EventBus {
+    /**
+     * the longest time the consumer parks before checking again, in case a wake up was missed
+     */
+    private static final long MAX_PARK_NANOS = 1_000_000;
+
+    private final EventManager manager;
+    private final int mask;
+    /**
+     * the event id shifted left by one, with the lowest bit set for recursive triggers
+     */
+    private final int[] entries;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * only changed by the consumer, but read by producers for {@link EventBus#size()}
+     */
+    private volatile long head = 0;
+
+    private volatile WaitStrategy waitStrategy = WaitStrategy.PARK;
+    private volatile boolean coalescing = false;
+    private int maxBatchSize = 256;
+
+    private int[] batch;
+    /**
+     * the last batch every entry was delivered in, used for coalescing
+     */
+    private int[] seen = new int[64];
+    private int batchNumber = 0;
+
+    private volatile boolean running = false;
+    /**
+     * the thread of the consumer started with {@link EventBus#start(Executor)}, used to wake it up
+     */
+    private volatile Thread thread;
+    /**
+     * the thread that is delivering a batch right now, on the started consumer or in {@link EventBus#runBatch()}
+     */
+    private volatile Thread owner;
+    /**
+     * set once the manager stopped using this bus(see {@link EventManager#disableBus()})
+     */
+    private volatile boolean detached = false;
+    private volatile boolean consumerWaiting = false;
+    private volatile CountDownLatch stopped = new CountDownLatch(0);
+
+    private volatile long deliveredCount = 0;
+    private volatile long coalescedCount = 0;
+    private volatile long batchCount = 0;
+    private volatile long failureCount = 0;
+    private volatile Throwable lastFailure;
+
+
+    //----------CONSTRUCTOR----------//
+    /**
+     * @param manager the manager the events are delivered to
+     * @param capacity the maximum number of events waiting(rounded up to a power of 2, at least 2 and at most 2^30)
+     */
+    EventBus(EventManager manager, int capacity) {
+        if(capacity <= 0) throw new IllegalArgumentException("capacity must be more than 0!");
+        this.manager = manager;
+        //with one slot the sequence of a full slot would be the same as the sequence of the free slot of the next lap
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(Math.min(capacity, 1 << 30) - 1) << 1;
+        mask = size - 1;
+        entries = new int[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequences.set(i, i);
+        batch = new int[Math.min(maxBatchSize, size)];
+    }
+
+
+    //----------GETTER and SETTER----------//
+    /**
+     * gets the manager the events are delivered to
+     * @return the manager
+     */
+    public EventManager getManager() {
+        return manager;
+    }
+
+    public int getCapacity(){
+        return mask + 1;
+    }
+
+    /**
+     * gets the number of events waiting(only an estimate while other threads are triggering)
+     * @return the number of events
+     */
+    public int size(){
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, getCapacity()));
+    }
+
+    public boolean isEmpty(){
+        return tail.get() == head;
+    }
+
+    /**
+     * gets how the consumer waits for events and producers wait for space
+     * @return the wait strategy
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * sets how the consumer waits for events and producers wait for space
+     * @param waitStrategy the wait strategy
+     */
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        if(waitStrategy == null) throw new IllegalArgumentException("waitStrategy can not be null!");
+        this.waitStrategy = waitStrategy;
+    }
+
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+
+    /**
+     * sets whether an event that is triggered more than once in the same batch is only delivered once(recursive and normal triggers of an event are different events)
+     * @param coalescing whether to coalesce events
+     */
+    public void setCoalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    public synchronized int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * sets the maximum number of events that are taken out of the buffer before they are delivered
+     * @param maxBatchSize the maximum batch size(must be more than 0)
+     */
+    public synchronized void setMaxBatchSize(int maxBatchSize) {
+        if(maxBatchSize <= 0) throw new IllegalArgumentException("maxBatchSize must be more than 0!");
+        this.maxBatchSize = maxBatchSize;
+        batch = new int[Math.min(maxBatchSize, getCapacity())];
+    }
+
+    /**
+     * gets the number of events that were delivered
+     * @return the delivered count
+     */
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    /**
+     * gets the number of events that were not delivered because the same event was already delivered in the batch
+     * @return the coalesced count
+     */
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * gets the number of handlers that threw while the bus delivered events(the other handlers still run)
+     * @return the failure count
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * gets the last exception a handler threw while the bus delivered events
+     * @return the exception or null if no handler threw
+     */
+    public Throwable getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * checks if the consumer is running
+     * @return whether the consumer is running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * checks if the consumer was started and did not finish yet(it may be delivering the last events after {@link EventBus#stop()})
+     * @return whether the consumer is alive
+     */
+    private boolean isConsumerAlive(){
+        return running || stopped.getCount() > 0;
+    }
+
+
+    //----------PRODUCE----------//
+    /**
+     * adds an event without waiting(this can be called from any thread)
+     * @param event the id of the event
+     * @param recursive whether the event is delivered like {@link EventManager#triggerEventRecursively(int)}
+     * @return false if the buffer is full
+     */
+    public boolean offer(int event, boolean recursive){
+        if(event < 0) throw new IllegalArgumentException("event must not be negative!");
+        int entry = event << 1 | (recursive ? 1 : 0);
+
+        long position = tail.get();
+        int index;
+        while(true){
+            index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+
+            if(difference == 0){
+                if(tail.compareAndSet(position, position + 1)) break;
+                position = tail.get();
+            } else if(difference < 0){
+                //the slot still holds an event from the last lap, so the buffer is full
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+
+        entries[index] = entry;
+        //a volatile write, so it can't move after the read of consumerWaiting
+        sequences.set(index, position + 1);
+        if(consumerWaiting){
+            Thread consumer = thread;
+            if(consumer != null) LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * adds an event and waits with the wait strategy while the buffer is full(see the implNote of {@link EventBus} for when this doesn't wait)
+     * @param event the id of the event
+     * @param recursive whether the event is delivered like {@link EventManager#triggerEventRecursively(int)}
+     */
+    void trigger(int event, boolean recursive){
+        int idle = 0;
+        while(!offer(event, recursive)){
+            if(Thread.currentThread() == owner){
+                deliver(event << 1 | (recursive ? 1 : 0));
+                return;
+            }
+            //nothing else is going to make space, so this delivers the oldest events itself(the batch can be empty while another producer is still writing the oldest event)
+            if((detached || !isConsumerAlive()) && runBatch() > 0) continue;
+            idle = idle(idle);
+        }
+
+        //the consumer may have done its last batch before the event was added
+        if(detached && !isConsumerAlive()) while (runBatch() > 0);
+    }
+
+
+    //----------CONSUME----------//
+    /**
+     * takes the events that are waiting(at most the max batch size) and delivers them on the calling thread.
+     * This is how events are delivered if the consumer is not started, for example from the tick of a {@link Group}.
+     * @return the number of events taken out of the buffer(including coalesced ones)
+     */
+    public synchronized int runBatch(){
+        int[] batch = this.batch;
+        int size = 0;
+        long position = head;
+        while(size < batch.length){
+            int index = (int) position & mask;
+            if(sequences.get(index) != position + 1) break;
+
+            batch[size++] = entries[index];
+            //the slot is given back before delivering, so producers don't wait for the handlers
+            sequences.set(index, position + mask + 1);
+            position++;
+        }
+        head = position;
+        if(size == 0) return 0;
+
+        boolean coalescing = this.coalescing;
+        if(coalescing && ++batchNumber == 0){
+            Arrays.fill(seen, 0);
+            batchNumber = 1;
+        }
+
+        //a handler can run a batch itself, so the owner of the outer batch is put back after
+        Thread previous = owner;
+        owner = Thread.currentThread();
+        try {
+            for (int i = 0; i < size; i++) {
+                int entry = batch[i];
+                if(coalescing){
+                    if(entry >= seen.length) seen = Arrays.copyOf(seen, Math.max(entry + 1, seen.length * 2));
+                    if(seen[entry] == batchNumber){
+                        coalescedCount++;
+                        continue;
+                    }
+                    seen[entry] = batchNumber;
+                }
+                deliver(entry);
+            }
+        } finally {
+            owner = previous;
+        }
+
+        batchCount++;
+        return size;
+    }
+
+    private void deliver(int entry){
+        int event = entry >>> 1;
+        Runnable[] runnables = (entry & 1) != 0 ? manager.getRecursiveRunnables(event) : manager.getRunnableArray(event);
+        for (Runnable runnable : runnables) {
+            try{
+                runnable.run();
+            } catch (Throwable e){
+                failureCount++;
+                lastFailure = e;
+            }
+        }
+        deliveredCount++;
+    }
+
+
+    //----------START/STOP----------//
+    /**
+     * starts the consumer on a new thread named after the manager
+     */
+    public synchronized void start() {
+        String name = manager.getName() + " event bus";
+        start(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.start();
+        });
+    }
+
+    /**
+     * starts the consumer on a thread of the executor(the consumer keeps that thread until it stops)
+     * @param executor the executor to run the consumer on
+     * @throws IllegalStateException if the consumer is still running(or still delivering the last events after {@link EventBus#stop()}), or the bus was disabled
+     */
+    public synchronized void start(Executor executor) {
+        if(isConsumerAlive()) throw new IllegalStateException("the event bus is already running!");
+        if(detached) throw new IllegalStateException("the event bus was disabled!");
+
+        running = true;
+        stopped = new CountDownLatch(1);
+        executor.execute(this::loop);
+    }
+
+    /**
+     * asks the consumer to stop once it delivered the events that are waiting(this doesn't wait, use {@link EventBus#awaitStop(long, TimeUnit)} for that)
+     */
+    public void stop() {
+        running = false;
+        Thread current = thread;
+        if(current != null) LockSupport.unpark(current);
+    }
+
+    /**
+     * stops using this bus for the manager: the consumer is stopped after it delivered the events that are waiting, or the events are delivered on the calling thread if the consumer isn't running
+     */
+    void detach(){
+        detached = true;
+        stop();
+        if(!isConsumerAlive()) while (runBatch() > 0);
+    }
+
+    /**
+     * waits for the consumer to stop
+     * @param timeout the maximum time to wait
+     * @param unit the unit of timeout
+     * @return whether the consumer stopped before the timeout
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public boolean awaitStop(long timeout, TimeUnit unit) throws InterruptedException {
+        return stopped.await(timeout, unit);
+    }
+
+    private void loop() {
+        thread = Thread.currentThread();
+        try {
+            int idle = 0;
+            while (running) {
+                if(runBatch() > 0){
+                    idle = 0;
+                    continue;
+                }
+
+                if(waitStrategy == WaitStrategy.PARK){
+                    consumerWaiting = true;
+                    //checked again after consumerWaiting is set, so a producer either sees it or this sees the event
+                    if(isEmpty() && running) LockSupport.parkNanos(MAX_PARK_NANOS);
+                    consumerWaiting = false;
+                } else {
+                    idle = idle(idle);
+                }
+            }
+
+            while (runBatch() > 0);
+        } finally {
+            running = false;
+            thread = null;
+            stopped.countDown();
+            //a producer that added an event after the last batch but before the count down didn't see the consumer stop
+            if(detached) while (runBatch() > 0);
+        }
+    }
+
+    /**
+     * waits a little with the wait strategy
+     * @param idle the number of times this already waited in a row
+     * @return the new number of times
+     */
+    private int idle(int idle){
+        switch (waitStrategy) {
+            case BUSY_SPIN:
+                Thread.onSpinWait();
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            default:
+                //spin and yield for a bit before parking, because space or events usually come back fast
+                if(idle < 100) Thread.onSpinWait();
+                else if(idle < 200) Thread.yield();
+                else LockSupport.parkNanos(1000);
+        }
+        return idle + 1;
+    }
+
+
+    //----------Other----------//
+    /**
+     * How the consumer of an {@link EventBus} waits for events and producers wait for space
+     */
+    public enum WaitStrategy {
+        /**
+         * keeps checking without giving up the cpu(lowest latency, but keeps a core busy)
+         */
+        BUSY_SPIN,
+        /**
+         * keeps checking but lets other threads run in between
+         */
+        YIELD,
+        /**
+         * parks the consumer until a producer wakes it up(uses no cpu while idle, but the first event after idling takes longer to deliver)
+         */
+        PARK
+    }
+}
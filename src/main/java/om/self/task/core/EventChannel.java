@@ -0,0 +1,23 @@
+package om.self.task.core;
+
+/**
+ * A channel of values of type T that handlers get as a {@link java.util.function.Consumer}(see {@link EventManager#attachToChannel(EventChannel, String, java.util.function.Consumer)} and {@link EventManager#publish(EventChannel, Object)}).
+ * @param <T> the type of the values
+ */
+public final class EventChannel<T> extends Channel {
+    /**
+     * Constructor that sets the name of this channel
+     * @param name the name of this channel(only used for info)
+     */
+    public EventChannel(String name) {
+        super(name);
+    }
+
+    /**
+     * Constructor that uses the name of an event as the name of this channel
+     * @param event the event(see {@link EventManager.CommonTrigger})
+     */
+    public EventChannel(Enum<?> event) {
+        super(event.name());
+    }
+}
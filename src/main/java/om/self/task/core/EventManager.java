@@ -3,19 +3,94 @@ package om.self.task.core;
 import om.self.structure.bidirectional.KeyedBidirectionalStructure;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
 
+/**
+ * A tree of named event handlers.
+ * Every event name is interned to a small int id(see {@link EventManager#getEventId(String)}), and every manager keeps the handlers of an event in an array that is copied when a handler is attached or detached, so triggering an event never hashes the name or locks.
+ * {@link EventManager#triggerEventRecursively(int)} runs a list of the handlers of the whole subtree that is built the first time and kept until a handler or child somewhere in the subtree changes.
+ * Events can also be delivered off the calling thread: {@link EventManager#triggerEventAsync(int)} runs the handlers one after another on the executor of the manager, {@link EventManager#triggerEventRecursivelyParallel(int)} runs the subtrees of the children at the same time and {@link EventManager#triggerEventOrdered(int)} gives every handler its own lane, so different handlers run at the same time but every handler still gets the events in the order they were triggered.
+ * These return a future that completes once every handler ran, and a handler that throws doesn't stop the others(the future completes exceptionally with all failures after that).
+ * With {@link EventManager#enableBus(int)} the triggers of this manager are queued in an {@link EventBus} and delivered in batches by a consumer instead of on the calling thread.
+ * Every manager is also reachable by its path(see {@link EventManager#getDir()}) through an index in the root of its tree, so {@link EventManager#getManager(String)} doesn't walk the tree, and events can be triggered on every manager matching a pattern like {@code main/*}{@code /drive} or {@code main/**}(see {@link EventManager#findManagers(String)}).
+ * Events that carry a value use channels({@link EventChannel}, {@link IntEventChannel} and {@link DoubleEventChannel}) instead of names. Channels have their own handlers next to the handlers of the named events and give the value to them without boxing or allocating.
+ * @implNote handlers are run from a copy of the handlers at the time of the trigger, so attaching or detaching handlers from a handler only changes the next trigger
+ */
 public class EventManager extends KeyedBidirectionalStructure<String, EventManager, EventManager> {
     private static final EventManager instance = new EventManager(null);
-    private final Hashtable<String, Hashtable<String, Runnable>> events = new Hashtable<>();
+
+    private static final Runnable[] NO_RUNNABLES = new Runnable[0];
+    private static final Object[] NO_HANDLERS = new Object[0];
+    private static final AtomicInteger channelCount = new AtomicInteger();
+    /**
+     * the ids of channels that were garbage collected, which are given out again before new ids
+     */
+    private static final PriorityQueue<Integer> freeChannelIds = new PriorityQueue<>();
+    private static final ConcurrentHashMap<String, Integer> eventIds = new ConcurrentHashMap<>();
+    private static final ArrayList<String> eventNames = new ArrayList<>();
+    /**
+     * the ids of all the constants of an enum by ordinal, so enum events don't need to be hashed
+     */
+    private static final ClassValue<int[]> enumEventIds = new ClassValue<>() {
+        @Override
+        protected int[] computeValue(Class<?> type) {
+            Object[] constants = type.getEnumConstants();
+            int[] ids = new int[constants.length];
+            for (int i = 0; i < constants.length; i++)
+                ids[i] = getEventId(((Enum<?>) constants[i]).name());
+            return ids;
+        }
+    };
+
+    /**
+     * the handlers of every event by event id(null if the event has no handlers here)
+     */
+    private volatile Handlers[] events = new Handlers[0];
+    /**
+     * the handlers of every channel by channel id
+     */
+    private volatile Handlers[] channels = new Handlers[0];
+    /**
+     * changed every time a handler or child in the subtree changes, so a {@link DispatchCache} with an older stamp is not used
+     */
+    private final AtomicInteger modCount = new AtomicInteger();
+    private volatile DispatchCache dispatchCache;
+    private volatile DispatchCache channelDispatchCache;
+    private volatile Executor executor;
+    private volatile EventBus bus;
 
     private final String name;
+    /**
+     * the path of this manager, which is updated for the whole subtree when the parent changes
+     */
+    private volatile String dir;
+    private volatile EventManager root = this;
+    /**
+     * the managers in this tree by path, only kept by the root and only once a path is looked up
+     */
+    private volatile ConcurrentHashMap<String, EventManager> pathIndex;
+    /**
+     * the managers that matched a pattern in this tree(only kept by the root)
+     */
+    private volatile ConcurrentHashMap<String, PatternMatch> patternCache;
+    /**
+     * changed every time a manager is attached or detached anywhere in this tree(only used by the root)
+     */
+    private volatile int structureVersion = 0;
 
     public EventManager(String name) {
         this.name = name;
+        this.dir = name;
     }
 
     public EventManager(String name, EventManager parent) {
         this.name = name;
+        this.dir = name;
         attachParent(parent);
     }
 
@@ -23,86 +98,909 @@ public class EventManager extends KeyedBidirectionalStructure<String, EventManag
         return instance;
     }
 
+
+    //----------EVENT IDS----------//
+    /**
+     * gets the id of an event, which stays the same for as long as the program runs.
+     * The id can be used instead of the name to trigger the event without hashing the name.
+     * @param event the name of the event
+     * @return the id
+     */
+    public static int getEventId(String event){
+        if(event == null) throw new IllegalArgumentException("event can not be null!");
+        Integer id = eventIds.get(event);
+        if(id != null) return id;
+
+        return eventIds.computeIfAbsent(event, e -> {
+            synchronized (eventNames) {
+                eventNames.add(e);
+                return eventNames.size() - 1;
+            }
+        });
+    }
+
+    /**
+     * gets the id of an event without giving it one, for lookups that can't change anything when the event is unknown
+     * @param event the name of the event
+     * @return the id or -1 if nothing ever used the event
+     */
+    static int findEventId(String event){
+        if(event == null) throw new IllegalArgumentException("event can not be null!");
+        Integer id = eventIds.get(event);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * gets the id of an event from an enum(the same as the id of {@link Enum#name()})
+     * @param event the event
+     * @return the id
+     */
+    public static int getEventId(Enum<?> event){
+        return enumEventIds.get(event.getDeclaringClass())[event.ordinal()];
+    }
+
+    /**
+     * gets the name of an event from its id
+     * @param id the id of the event
+     * @return the name
+     */
+    public static String getEventName(int id){
+        synchronized (eventNames) {
+            return eventNames.get(id);
+        }
+    }
+
+    /**
+     * gives out the id of a new channel, reusing the lowest id of a collected channel if there is one, so the channel tables of the managers only grow to the most channels alive at once
+     * @return the id
+     */
+    static int nextChannelId(){
+        synchronized (freeChannelIds) {
+            Integer id = freeChannelIds.poll();
+            if(id != null) return id;
+        }
+        return channelCount.getAndIncrement();
+    }
+
+    /**
+     * gives back the id of a channel that was garbage collected(see {@link Channel})
+     * @param id the id
+     */
+    static void releaseChannelId(int id){
+        synchronized (freeChannelIds) {
+            freeChannelIds.add(id);
+        }
+    }
+
+
+    //----------GETTER and SETTER----------//
+    /**
+     * gets a copy of the handlers of every event that has handlers in this manager.
+     * The handlers are stored in compiled arrays now, so this is built on every call and is detached from the manager: changing it doesn't attach or detach anything(use {@link EventManager#attachToEvent(String, String, Runnable)} and {@link EventManager#detachFromEvent(String, String)} for that).
+     * @return a new table of the handlers by event name and handler name
+     */
     public Hashtable<String, Hashtable<String, Runnable>> getEvents(){
-        return events;
+        Hashtable<String, Hashtable<String, Runnable>> copy = new Hashtable<>();
+        Handlers[] events = this.events;
+        for (int id = 0; id < events.length; id++) {
+            Handlers handlers = events[id];
+            if(handlers == null) continue;
+
+            Hashtable<String, Runnable> table = new Hashtable<>();
+            for (int i = 0; i < handlers.names.length; i++)
+                table.put(handlers.names[i], (Runnable) handlers.handlers[i]);
+            copy.put(getEventName(id), table);
+        }
+        return copy;
     }
 
     public Collection<Runnable> getRunnables(){
-        return events
-                .values()
-                .stream()
-                .flatMap(event -> event.values().stream())
-                .toList();
+        ArrayList<Runnable> runnables = new ArrayList<>();
+        for (Handlers handlers : events)
+            if(handlers != null) Collections.addAll(runnables, (Runnable[]) handlers.handlers);
+        return runnables;
     }
 
     public Collection<Runnable> getRunnables(String event){
-        if(!events.containsKey(event)) return Collections.emptyList();
-        return events.get(event).values();
+        return List.of(getRunnableArray(findEventId(event)));
+    }
+
+    Runnable[] getRunnableArray(int event){
+        Handlers handlers = getHandlers(event);
+        return handlers != null ? (Runnable[]) handlers.handlers : NO_RUNNABLES;
+    }
+
+    private Handlers getHandlers(int event){
+        return getHandlers(events, event);
+    }
+
+    private Object[] getChannelArray(int channel){
+        Handlers handlers = getHandlers(channels, channel);
+        return handlers != null ? handlers.handlers : NO_HANDLERS;
+    }
+
+    private static Handlers getHandlers(Handlers[] table, int id){
+        return id >= 0 && id < table.length ? table[id] : null;
     }
 
     public String getName() {
         return name;
     }
 
-    public void attachToEvent(String event, String runnableName, Runnable runnable){
-        if(!events.contains(event))
-            events.put(event, new Hashtable<>());
+    /**
+     * gets the executor that async, parallel and ordered triggers run handlers on. If no executor is set then the executor of the parent is used, and root managers without an executor use {@link Group#VIRTUAL_THREADS}.
+     * @return the executor
+     */
+    public Executor getExecutor() {
+        if(executor != null) return executor;
+        if(isParentAttached()) return getParent().getExecutor();
+        return Group.VIRTUAL_THREADS;
+    }
 
-        events.get(event).put(runnableName, runnable);
+    /**
+     * sets the executor that async, parallel and ordered triggers run handlers on(also used by children without an executor)
+     * @param executor the executor(null to use the executor of the parent)
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * gets the bus that queues the triggers of this manager
+     * @return the bus or null if the queued mode is disabled
+     */
+    public EventBus getBus() {
+        return bus;
+    }
+
+    /**
+     * starts queueing the triggers of this manager in a bus(if the bus is already enabled then the existing bus is kept).
+     * The events are only delivered once the bus is started(see {@link EventBus#start()}) or batches are run(see {@link EventBus#runBatch()}).
+     * If the bus is not started and fills up, a trigger doesn't wait for a batch to be run but runs one itself, so handlers can then run on the thread that triggered.
+     * @param capacity the maximum number of events waiting
+     * @return the bus of this manager
+     */
+    public synchronized EventBus enableBus(int capacity) {
+        EventBus current = bus;
+        if(current == null){
+            current = new EventBus(this, capacity);
+            bus = current;
+        }
+        return current;
+    }
+
+    /**
+     * stops queueing triggers, so they run on the calling thread again. The consumer of the bus is stopped after it delivered the events that are still waiting, or if the bus was never started, the waiting events are delivered on the calling thread before this returns.
+     * The bus can't be started again after this.
+     */
+    public synchronized void disableBus() {
+        EventBus current = bus;
+        bus = null;
+        if(current != null) current.detach();
+    }
+
+
+    //----------ATTACH/DETACH----------//
+    public void attachToEvent(String event, String runnableName, Runnable runnable){
+        attachToEvent(getEventId(event), runnableName, runnable);
     }
 
     public void attachToEvent(Enum event, String runnableName, Runnable runnable){
-        attachToEvent(event.name(), runnableName, runnable);
+        attachToEvent(getEventId(event), runnableName, runnable);
+    }
+
+    /**
+     * attaches a handler to an event(replacing the handler with the same name)
+     * @param event the id of the event(see {@link EventManager#getEventId(String)})
+     * @param runnableName the name of the handler
+     * @param runnable the handler
+     */
+    public void attachToEvent(int event, String runnableName, Runnable runnable){
+        if(runnableName == null) throw new IllegalArgumentException("runnableName can not be null!");
+        if(runnable == null) throw new IllegalArgumentException("runnable can not be null!");
+        attach(null, event, runnableName, runnable);
     }
 
     public void detachFromEvent(String event, String runnableName){
-        if(!events.contains(event)) return;
-        events.get(event).remove(runnableName);
+        detachFromEvent(findEventId(event), runnableName);
     }
 
     public void detachFromEvent(Enum<?> event, String runnableName){
-        detachFromEvent(event.name(), runnableName);
+        detachFromEvent(getEventId(event), runnableName);
+    }
+
+    /**
+     * detaches a handler from an event
+     * @param event the id of the event
+     * @param runnableName the name of the handler
+     */
+    public void detachFromEvent(int event, String runnableName){
+        detach(false, event, runnableName);
     }
 
     public void clearEvent(String event){
-        events.remove(event);
+        clearEvent(findEventId(event));
     }
 
     public void clearEvent(Enum<?> event){
-        clearEvent(event.name());
+        clearEvent(getEventId(event));
     }
 
-    public void triggerEventRecursively(String event){
-        getChildren().forEach(child -> child.triggerEventRecursively(event));
+    /**
+     * detaches all handlers from an event
+     * @param event the id of the event
+     */
+    public void clearEvent(int event){
+        detach(false, event, null);
+    }
+
+    /**
+     * attaches a handler to an event or channel(replacing the handler with the same name)
+     * @param channel the channel or null if the id is an event id
+     * @param id the id of the event or channel
+     * @param name the name of the handler
+     * @param handler the handler
+     */
+    private synchronized void attach(Channel channel, int id, String name, Object handler){
+        Handlers[] table = channel != null ? channels : events;
+        table = Arrays.copyOf(table, Math.max(table.length, id + 1));
+
+        Handlers handlers = table[id];
+        if(handlers != null) table[id] = handlers.with(name, handler);
+        //events keep their runnables in a Runnable[] and have lanes, channels only need the handlers and keep the channel alive
+        else if(channel != null) table[id] = new Handlers(new String[]{name}, new Object[]{handler}, null, channel);
+        else table[id] = new Handlers(new String[]{name}, new Runnable[]{(Runnable) handler}, new Lane[]{new Lane()}, null);
+
+        if(channel != null) channels = table;
+        else events = table;
+        invalidateDispatch();
+    }
+
+    /**
+     * detaches a handler from an event or channel
+     * @param channel whether the id is a channel id
+     * @param id the id of the event or channel
+     * @param name the name of the handler(null to detach all handlers)
+     */
+    private synchronized void detach(boolean channel, int id, String name){
+        Handlers[] table = channel ? channels : events;
+        Handlers handlers = getHandlers(table, id);
+        if(handlers == null) return;
 
-        triggerEvent(event);
+        Handlers remaining = name == null ? null : handlers.without(name);
+        if(remaining == handlers) return;
+
+        table = table.clone();
+        table[id] = remaining;
+        if(channel) channels = table;
+        else events = table;
+        invalidateDispatch();
+    }
+
+
+    //----------CHANNELS----------//
+    /**
+     * attaches a handler to a channel(replacing the handler with the same name)
+     * @param channel the channel
+     * @param handlerName the name of the handler
+     * @param handler the handler that gets the published values
+     * @param <T> the type of the values
+     */
+    public <T> void attachToChannel(EventChannel<T> channel, String handlerName, Consumer<? super T> handler){
+        attachToChannel((Channel) channel, handlerName, handler);
+    }
+
+    /**
+     * attaches a handler to a channel of ints(replacing the handler with the same name)
+     * @param channel the channel
+     * @param handlerName the name of the handler
+     * @param handler the handler that gets the published values
+     */
+    public void attachToChannel(IntEventChannel channel, String handlerName, IntConsumer handler){
+        attachToChannel((Channel) channel, handlerName, handler);
+    }
+
+    /**
+     * attaches a handler to a channel of doubles(replacing the handler with the same name)
+     * @param channel the channel
+     * @param handlerName the name of the handler
+     * @param handler the handler that gets the published values
+     */
+    public void attachToChannel(DoubleEventChannel channel, String handlerName, DoubleConsumer handler){
+        attachToChannel((Channel) channel, handlerName, handler);
+    }
+
+    private void attachToChannel(Channel channel, String handlerName, Object handler){
+        if(channel == null) throw new IllegalArgumentException("channel can not be null!");
+        if(handlerName == null) throw new IllegalArgumentException("handlerName can not be null!");
+        if(handler == null) throw new IllegalArgumentException("handler can not be null!");
+        attach(channel, channel.id, handlerName, handler);
+    }
+
+    /**
+     * detaches a handler from a channel
+     * @param channel the channel
+     * @param handlerName the name of the handler
+     */
+    public void detachFromChannel(Channel channel, String handlerName){
+        detach(true, channel.id, handlerName);
+    }
+
+    /**
+     * detaches all handlers from a channel
+     * @param channel the channel
+     */
+    public void clearChannel(Channel channel){
+        detach(true, channel.id, null);
+    }
+
+    /**
+     * gives a value to the handlers of a channel in this manager
+     * @param channel the channel
+     * @param value the value
+     * @param <T> the type of the value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void publish(EventChannel<T> channel, T value){
+        for (Object handler : getChannelArray(channel.id))
+            ((Consumer<? super T>) handler).accept(value);
+    }
+
+    /**
+     * gives a value to the handlers of a channel in this manager without boxing it
+     * @param channel the channel
+     * @param value the value
+     */
+    public void publish(IntEventChannel channel, int value){
+        for (Object handler : getChannelArray(channel.id))
+            ((IntConsumer) handler).accept(value);
+    }
+
+    /**
+     * gives a value to the handlers of a channel in this manager without boxing it
+     * @param channel the channel
+     * @param value the value
+     */
+    public void publish(DoubleEventChannel channel, double value){
+        for (Object handler : getChannelArray(channel.id))
+            ((DoubleConsumer) handler).accept(value);
+    }
+
+    /**
+     * gives a value to the handlers of a channel in all children(depth first) and then in this manager
+     * @param channel the channel
+     * @param value the value
+     * @param <T> the type of the value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void publishRecursively(EventChannel<T> channel, T value){
+        for (Object handler : getRecursiveHandlers(true, channel.id))
+            ((Consumer<? super T>) handler).accept(value);
+    }
+
+    /**
+     * gives a value to the handlers of a channel in all children(depth first) and then in this manager without boxing it
+     * @param channel the channel
+     * @param value the value
+     */
+    public void publishRecursively(IntEventChannel channel, int value){
+        for (Object handler : getRecursiveHandlers(true, channel.id))
+            ((IntConsumer) handler).accept(value);
+    }
+
+    /**
+     * gives a value to the handlers of a channel in all children(depth first) and then in this manager without boxing it
+     * @param channel the channel
+     * @param value the value
+     */
+    public void publishRecursively(DoubleEventChannel channel, double value){
+        for (Object handler : getRecursiveHandlers(true, channel.id))
+            ((DoubleConsumer) handler).accept(value);
+    }
+
+
+    //----------TRIGGER----------//
+    public void triggerEventRecursively(String event){
+        triggerEventRecursively(getEventId(event));
     }
 
     public void triggerEventRecursively(Enum<?> event){
-        triggerEventRecursively(event.name());
+        triggerEventRecursively(getEventId(event));
+    }
+
+    /**
+     * runs the handlers of an event in all children(depth first) and then in this manager(or queues the event if the bus is enabled, see {@link EventManager#enableBus(int)})
+     * @param event the id of the event
+     */
+    public void triggerEventRecursively(int event){
+        EventBus bus = this.bus;
+        if(bus != null){
+            bus.trigger(event, true);
+            return;
+        }
+
+        for (Runnable runnable : getRecursiveRunnables(event))
+            runnable.run();
     }
 
     public void triggerEvent(String event){
-        getRunnables(event).forEach(Runnable::run);
+        triggerEvent(getEventId(event));
     }
 
     public void triggerEvent(Enum<?> event){
-        triggerEvent(event.name());
+        triggerEvent(getEventId(event));
     }
 
+    /**
+     * runs the handlers of an event in this manager(or queues the event if the bus is enabled, see {@link EventManager#enableBus(int)})
+     * @param event the id of the event
+     */
+    public void triggerEvent(int event){
+        EventBus bus = this.bus;
+        if(bus != null){
+            bus.trigger(event, false);
+            return;
+        }
+
+        for (Runnable runnable : getRunnableArray(event))
+            runnable.run();
+    }
+
+
+    //----------ASYNC TRIGGER----------//
+    public CompletableFuture<Void> triggerEventAsync(String event){
+        return triggerEventAsync(getEventId(event));
+    }
+
+    public CompletableFuture<Void> triggerEventAsync(Enum<?> event){
+        return triggerEventAsync(getEventId(event));
+    }
+
+    /**
+     * runs the handlers of an event in this manager one after another on the executor(see {@link EventManager#getExecutor()})
+     * @param event the id of the event
+     * @return a future that completes once all handlers ran
+     */
+    public CompletableFuture<Void> triggerEventAsync(int event){
+        return runAsync(event, getRunnableArray(event));
+    }
+
+    public CompletableFuture<Void> triggerEventRecursivelyAsync(String event){
+        return triggerEventRecursivelyAsync(getEventId(event));
+    }
+
+    public CompletableFuture<Void> triggerEventRecursivelyAsync(Enum<?> event){
+        return triggerEventRecursivelyAsync(getEventId(event));
+    }
+
+    /**
+     * runs the handlers of an event in the whole subtree one after another on the executor, in the same order as {@link EventManager#triggerEventRecursively(int)}
+     * @param event the id of the event
+     * @return a future that completes once all handlers ran
+     */
+    public CompletableFuture<Void> triggerEventRecursivelyAsync(int event){
+        return runAsync(event, getRecursiveRunnables(event));
+    }
+
+    private CompletableFuture<Void> runAsync(int event, Runnable[] runnables){
+        Delivery delivery = new Delivery(event);
+        if(runnables.length > 0){
+            delivery.begin();
+            execute(getExecutor(), delivery, () -> {
+                delivery.runAll(runnables);
+                delivery.end();
+            });
+        }
+        return delivery.end();
+    }
+
+    public CompletableFuture<Void> triggerEventRecursivelyParallel(String event){
+        return triggerEventRecursivelyParallel(getEventId(event));
+    }
+
+    public CompletableFuture<Void> triggerEventRecursivelyParallel(Enum<?> event){
+        return triggerEventRecursivelyParallel(getEventId(event));
+    }
+
+    /**
+     * runs the handlers of an event in the whole subtree, where the subtrees of different children run at the same time.
+     * The handlers of a manager are still run one after another and only after the handlers of all its children ran, like in {@link EventManager#triggerEventRecursively(int)}.
+     * Every manager runs its handlers on its own executor(see {@link EventManager#getExecutor()}).
+     * @param event the id of the event
+     * @return a future that completes once all handlers in the subtree ran
+     */
+    public CompletableFuture<Void> triggerEventRecursivelyParallel(int event){
+        Delivery delivery = new Delivery(event);
+        delivery.begin();
+        triggerSubtreeParallel(event, delivery).whenComplete((v, t) -> delivery.end());
+        return delivery.end();
+    }
+
+    private CompletableFuture<Void> triggerSubtreeParallel(int event, Delivery delivery){
+        //the cached dispatch list tells if anything in the subtree handles the event, so empty subtrees are skipped
+        if(getRecursiveRunnables(event).length == 0) return Delivery.DONE;
+
+        ArrayList<CompletableFuture<Void>> children = new ArrayList<>();
+        for (EventManager child : getChildren()) {
+            CompletableFuture<Void> future = child.triggerSubtreeParallel(event, delivery);
+            if(!future.isDone()) children.add(future);
+        }
+
+        Runnable[] own = getRunnableArray(event);
+        if(own.length == 0)
+            return children.isEmpty() ? Delivery.DONE : CompletableFuture.allOf(children.toArray(CompletableFuture[]::new));
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Executor executor = getExecutor();
+        Runnable runOwn = () -> execute(executor, delivery, () -> {
+            delivery.runAll(own);
+            done.complete(null);
+        }, done);
+
+        if(children.isEmpty()) runOwn.run();
+        else CompletableFuture.allOf(children.toArray(CompletableFuture[]::new)).whenComplete((v, t) -> runOwn.run());
+        return done;
+    }
+
+    public CompletableFuture<Void> triggerEventOrdered(String event){
+        return triggerEventOrdered(getEventId(event));
+    }
+
+    public CompletableFuture<Void> triggerEventOrdered(Enum<?> event){
+        return triggerEventOrdered(getEventId(event));
+    }
+
+    /**
+     * gives the event to every handler of this manager on the lane of the handler.
+     * Every handler has its own lane, so the handlers run at the same time, but a handler only gets the next event after it finished the last one(in the order the events were triggered).
+     * @param event the id of the event
+     * @return a future that completes once all handlers ran this event
+     */
+    public CompletableFuture<Void> triggerEventOrdered(int event){
+        Delivery delivery = new Delivery(event);
+        deliverOrdered(event, delivery, false);
+        return delivery.end();
+    }
+
+    public CompletableFuture<Void> triggerEventRecursivelyOrdered(String event){
+        return triggerEventRecursivelyOrdered(getEventId(event));
+    }
+
+    public CompletableFuture<Void> triggerEventRecursivelyOrdered(Enum<?> event){
+        return triggerEventRecursivelyOrdered(getEventId(event));
+    }
+
+    /**
+     * gives the event to every handler in the whole subtree on the lane of the handler(see {@link EventManager#triggerEventOrdered(int)})
+     * @param event the id of the event
+     * @return a future that completes once all handlers ran this event
+     */
+    public CompletableFuture<Void> triggerEventRecursivelyOrdered(int event){
+        Delivery delivery = new Delivery(event);
+        deliverOrdered(event, delivery, true);
+        return delivery.end();
+    }
+
+    private void deliverOrdered(int event, Delivery delivery, boolean recursive){
+        if(recursive){
+            if(getRecursiveRunnables(event).length == 0) return;
+            for (EventManager child : getChildren())
+                child.deliverOrdered(event, delivery, true);
+        }
+
+        Handlers handlers = getHandlers(event);
+        if(handlers == null) return;
+
+        Executor executor = getExecutor();
+        for (int i = 0; i < handlers.handlers.length; i++) {
+            Runnable runnable = (Runnable) handlers.handlers[i];
+            delivery.begin();
+            handlers.lanes[i].submit(executor, new LaneEntry(runnable, delivery));
+        }
+    }
+
+    /**
+     * runs an action on an executor, where a rejected action is counted as a failure of the delivery
+     */
+    private static void execute(Executor executor, Delivery delivery, Runnable action){
+        try{
+            executor.execute(action);
+        } catch (RuntimeException e){
+            delivery.fail(e);
+            delivery.end();
+        }
+    }
+
+    private static void execute(Executor executor, Delivery delivery, Runnable action, CompletableFuture<Void> done){
+        try{
+            executor.execute(action);
+        } catch (RuntimeException e){
+            delivery.fail(e);
+            done.complete(null);
+        }
+    }
+
+
+    //----------DISPATCH CACHE----------//
+    /**
+     * gets the handlers of an event in the whole subtree in the order {@link EventManager#triggerEventRecursively(int)} runs them
+     * @param event the id of the event
+     * @return the handlers(must not be changed)
+     */
+    Runnable[] getRecursiveRunnables(int event){
+        return (Runnable[]) getRecursiveHandlers(false, event);
+    }
+
+    /**
+     * gets the handlers of an event or channel in the whole subtree, children first
+     * @param channel whether the id is a channel id
+     * @param id the id of the event or channel
+     * @return the handlers(a Runnable[] for events, must not be changed)
+     */
+    private Object[] getRecursiveHandlers(boolean channel, int id){
+        //the stamp is read before building, so a change while building makes the result stale instead of lost
+        int stamp = modCount.get();
+        DispatchCache cache = channel ? channelDispatchCache : dispatchCache;
+        boolean current = cache != null && cache.stamp == stamp;
+        if(current && id < cache.lists.length && cache.lists[id] != null) return cache.lists[id];
+
+        Object[] list = buildRecursiveHandlers(channel, id);
+        if(id < 0) return list;
+
+        Object[][] lists = current ? Arrays.copyOf(cache.lists, Math.max(cache.lists.length, id + 1)) : new Object[id + 1][];
+        lists[id] = list;
+        if(channel) channelDispatchCache = new DispatchCache(stamp, lists);
+        else dispatchCache = new DispatchCache(stamp, lists);
+        return list;
+    }
+
+    private Object[] buildRecursiveHandlers(boolean channel, int id){
+        Object[] own = channel ? getChannelArray(id) : getRunnableArray(id);
+        Collection<EventManager> children = getChildren();
+        if(children.isEmpty()) return own;
+
+        ArrayList<Object> list = new ArrayList<>();
+        for (EventManager child : children)
+            Collections.addAll(list, child.getRecursiveHandlers(channel, id));
+        Collections.addAll(list, own);
+
+        Object[] empty = channel ? NO_HANDLERS : NO_RUNNABLES;
+        return list.isEmpty() ? empty : list.toArray(empty);
+    }
+
+    /**
+     * makes the dispatch lists of this manager and all parents stale
+     */
+    private void invalidateDispatch(){
+        for (EventManager manager = this; manager != null; manager = manager.getParent())
+            manager.modCount.incrementAndGet();
+    }
+
+
+    //----------PATHS----------//
+    /**
+     * gets the path of this manager, which is the names of all parents and this manager separated by "/"
+     * @return the path
+     */
     public String getDir(){
-        if(getParent() == null)
-            return getName();
+        return dir;
+    }
+
+    /**
+     * gets the manager at the top of the tree this manager is in
+     * @return the root
+     */
+    public EventManager getRoot() {
+        return root;
+    }
+
+    /**
+     * gets the manager with a path in the tree this manager is in(see {@link EventManager#getDir()}).
+     * The first lookup builds an index of the tree, which is kept up to date after that, so lookups don't walk the tree.
+     * @param path the path(starting with the name of the root)
+     * @return the manager or null if there is no manager with the path
+     */
+    public EventManager getManager(String path){
+        if(path == null) throw new IllegalArgumentException("path can not be null!");
+        return root.getPathIndex().get(path);
+    }
+
+    /**
+     * gets all managers in the tree this manager is in with a path that matches a pattern.
+     * The pattern is split at "/" like a path, where "**" matches any number of names(including none), and "*" and "?" in a name match any characters or one character.
+     * A pattern without wildcards is looked up in the index, and the managers that match a pattern are kept until the tree changes, so using the same pattern again doesn't walk the tree.
+     * @param pattern the pattern(for example {@code main/*}{@code /drive} or {@code main/**})
+     * @return the matching managers in the order of the tree(parents first)
+     */
+    public List<EventManager> findManagers(String pattern){
+        return List.of(resolve(pattern));
+    }
+
+    public void triggerEventAt(String pattern, String event){
+        triggerEventAt(pattern, getEventId(event));
+    }
+
+    public void triggerEventAt(String pattern, Enum<?> event){
+        triggerEventAt(pattern, getEventId(event));
+    }
+
+    /**
+     * triggers an event in every manager that matches a pattern(see {@link EventManager#findManagers(String)} and {@link EventManager#triggerEvent(int)})
+     * @param pattern the pattern
+     * @param event the id of the event
+     */
+    public void triggerEventAt(String pattern, int event){
+        for (EventManager manager : resolve(pattern))
+            manager.triggerEvent(event);
+    }
+
+    private EventManager[] resolve(String pattern){
+        if(pattern == null) throw new IllegalArgumentException("pattern can not be null!");
+        EventManager root = this.root;
+
+        if(pattern.indexOf('*') < 0 && pattern.indexOf('?') < 0){
+            EventManager manager = root.getPathIndex().get(pattern);
+            return manager != null ? new EventManager[]{manager} : new EventManager[0];
+        }
+
+        return root.resolveCached(pattern);
+    }
+
+    private EventManager[] resolveCached(String pattern){
+        ConcurrentHashMap<String, PatternMatch> cache = patternCache;
+        if(cache == null){
+            cache = new ConcurrentHashMap<>();
+            patternCache = cache;
+        }
+
+        //the version is read before matching, so a change while matching makes the result stale instead of lost
+        int version = structureVersion;
+        PatternMatch match = cache.get(pattern);
+        if(match != null && match.version == version) return match.managers;
+
+        LinkedHashSet<EventManager> found = new LinkedHashSet<>();
+        match(pattern.split("/", -1), 0, found);
 
-        return getParent().getDir() + "/" + getName();
+        EventManager[] managers = found.toArray(new EventManager[0]);
+        if(cache.size() >= 256) cache.clear();
+        cache.put(pattern, new PatternMatch(version, managers));
+        return managers;
     }
 
+    /**
+     * adds the managers in this subtree that match the pattern from the segment at index on, where this manager has to match that segment
+     */
+    private void match(String[] segments, int index, Set<EventManager> found){
+        if(index == segments.length) return;
+        boolean last = index + 1 == segments.length;
+
+        if(segments[index].equals("**")){
+            //the ** either matches no names, or this manager is one of the names it matches
+            match(segments, index + 1, found);
+            if(last) found.add(this);
+            for (EventManager child : getChildren())
+                child.match(segments, index, found);
+            return;
+        }
+
+        if(!globMatches(segments[index], String.valueOf(name))) return;
+        //a ** at the end can match no names, so this manager matches as well
+        if(last || index + 2 == segments.length && segments[index + 1].equals("**")) found.add(this);
+        if(!last) for (EventManager child : getChildren())
+            child.match(segments, index + 1, found);
+    }
+
+    /**
+     * checks if a name matches a glob where "*" matches any characters and "?" matches one character
+     */
+    private static boolean globMatches(String glob, String name){
+        int g = 0, n = 0, star = -1, starName = 0;
+        while(n < name.length()){
+            if(g < glob.length() && (glob.charAt(g) == '?' || glob.charAt(g) == name.charAt(n))){
+                g++;
+                n++;
+            } else if(g < glob.length() && glob.charAt(g) == '*'){
+                star = g++;
+                starName = n;
+            } else if(star >= 0){
+                //let the last star take one more character and try again
+                g = star + 1;
+                n = ++starName;
+            } else {
+                return false;
+            }
+        }
+        while(g < glob.length() && glob.charAt(g) == '*') g++;
+        return g == glob.length();
+    }
+
+    private ConcurrentHashMap<String, EventManager> getPathIndex(){
+        ConcurrentHashMap<String, EventManager> index = pathIndex;
+        if(index == null){
+            synchronized (this) {
+                index = pathIndex;
+                if(index == null){
+                    index = new ConcurrentHashMap<>();
+                    addToIndex(index);
+                    pathIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private void addToIndex(ConcurrentHashMap<String, EventManager> index){
+        if(dir != null) index.put(dir, this);
+        for (EventManager child : getChildren())
+            child.addToIndex(index);
+    }
+
+    /**
+     * updates the path, root and index entries of this subtree after the parent changed
+     * @param parent the new parent(null if this was detached)
+     */
+    private void reindex(EventManager parent){
+        EventManager oldRoot = root;
+        EventManager newRoot = parent == null ? this : parent.root;
+        String newDir = parent == null ? name : parent.dir + "/" + name;
+        if(oldRoot == newRoot && Objects.equals(dir, newDir)) return;
+
+        //a subtree that becomes part of another tree doesn't need its own index anymore
+        if(oldRoot == this) pathIndex = null;
+        moveSubtree(oldRoot.pathIndex, newRoot, newDir);
+        oldRoot.structureVersion++;
+        newRoot.structureVersion++;
+    }
+
+    private void moveSubtree(ConcurrentHashMap<String, EventManager> oldIndex, EventManager newRoot, String newDir){
+        if(oldIndex != null && dir != null) oldIndex.remove(dir, this);
+        dir = newDir;
+        root = newRoot;
+        ConcurrentHashMap<String, EventManager> newIndex = newRoot.pathIndex;
+        if(newIndex != null && newDir != null) newIndex.put(newDir, this);
+
+        for (EventManager child : getChildren())
+            child.moveSubtree(oldIndex, newRoot, newDir + "/" + child.name);
+    }
+
+
+    //----------STRUCTURE----------//
     public void attachChild(EventManager eventManager) {
-        super.attachChild(eventManager.getName(), eventManager);
+        attachChild(eventManager.getName(), eventManager);
+    }
+
+    @Override
+    public void attachChild(String key, EventManager child) {
+        super.attachChild(key, child);
+        child.reindex(this);
+        invalidateDispatch();
+    }
+
+    @Override
+    public void onChildDetach(String key, EventManager child) {
+        child.reindex(null);
+        invalidateDispatch();
     }
 
     public void attachParent(EventManager eventManager) {
-        super.attachParent(getName(), eventManager);
+        attachParent(getName(), eventManager);
+    }
+
+    @Override
+    public void attachParent(String key, EventManager parent) {
+        EventManager oldParent = getParent();
+        super.attachParent(key, parent);
+        reindex(parent);
+        if(oldParent != null) oldParent.invalidateDispatch();
+        if(parent != null) parent.invalidateDispatch();
+    }
+
+    @Override
+    public void detachParent() {
+        EventManager parent = getParent();
+        super.detachParent();
+        reindex(null);
+        if(parent != null) parent.invalidateDispatch();
     }
 
     public enum CommonTrigger{
@@ -110,4 +1008,187 @@ public class EventManager extends KeyedBidirectionalStructure<String, EventManag
         INIT,
         STOP
     }
+
+
+    //----------Other----------//
+    /**
+     * The handlers of one event or channel in the order they were attached(never changed after creating)
+     */
+    private static final class Handlers {
+        private final String[] names;
+        /**
+         * the handlers, where the array keeps the type it was created with(a Runnable[] for events)
+         */
+        private final Object[] handlers;
+        /**
+         * the lane of every handler, which is kept when a handler is replaced by one with the same name(null for channels)
+         */
+        private final Lane[] lanes;
+        /**
+         * the channel of the handlers, so its id is not reused while a manager still has handlers for it(null for events)
+         */
+        private final Channel channel;
+
+        private Handlers(String[] names, Object[] handlers, Lane[] lanes, Channel channel) {
+            this.names = names;
+            this.handlers = handlers;
+            this.lanes = lanes;
+            this.channel = channel;
+        }
+
+        private Handlers with(String name, Object handler){
+            for (int i = 0; i < names.length; i++) {
+                if(names[i].equals(name)){
+                    Object[] handlers = this.handlers.clone();
+                    handlers[i] = handler;
+                    return new Handlers(names, handlers, lanes, channel);
+                }
+            }
+
+            int size = names.length + 1;
+            String[] names = Arrays.copyOf(this.names, size);
+            Object[] handlers = Arrays.copyOf(this.handlers, size);
+            names[size - 1] = name;
+            handlers[size - 1] = handler;
+
+            Lane[] lanes = null;
+            if(this.lanes != null){
+                lanes = Arrays.copyOf(this.lanes, size);
+                lanes[size - 1] = new Lane();
+            }
+            return new Handlers(names, handlers, lanes, channel);
+        }
+
+        private Handlers without(String name){
+            for (int i = 0; i < names.length; i++) {
+                if(!names[i].equals(name)) continue;
+                if(names.length == 1) return null;
+
+                return new Handlers(without(names, i), without(handlers, i), lanes == null ? null : without(lanes, i), channel);
+            }
+            return this;
+        }
+
+        private static <T> T[] without(T[] array, int index){
+            T[] copy = Arrays.copyOf(array, array.length - 1);
+            System.arraycopy(array, index + 1, copy, index, copy.length - index);
+            return copy;
+        }
+    }
+
+    /**
+     * Runs the actions given to it one after another on an executor, so actions of the same lane never run at the same time or out of order
+     */
+    private static final class Lane {
+        private final ConcurrentLinkedQueue<LaneEntry> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private void submit(Executor executor, LaneEntry entry){
+            queue.offer(entry);
+            schedule(executor);
+        }
+
+        private void schedule(Executor executor){
+            if(!draining.compareAndSet(false, true)) return;
+            try{
+                executor.execute(() -> drain(executor));
+            } catch (RuntimeException e){
+                //nothing will run the queued entries, so they fail instead of keeping their triggers from completing
+                LaneEntry entry;
+                while((entry = queue.poll()) != null){
+                    entry.delivery.fail(e);
+                    entry.delivery.end();
+                }
+                draining.set(false);
+                if(!queue.isEmpty()) schedule(executor);
+            }
+        }
+
+        private void drain(Executor executor){
+            LaneEntry entry;
+            while((entry = queue.poll()) != null){
+                entry.delivery.run(entry.runnable);
+                entry.delivery.end();
+            }
+
+            draining.set(false);
+            //an entry may have been added after the last poll but before draining was cleared
+            if(!queue.isEmpty()) schedule(executor);
+        }
+    }
+
+    private record LaneEntry(Runnable runnable, Delivery delivery) {}
+
+    /**
+     * Keeps track of the handlers of one async trigger and the failures of them
+     */
+    private static final class Delivery {
+        private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+        private final int event;
+        /**
+         * the number of handlers or groups of handlers that are not done, plus one until the trigger finished giving out the event
+         */
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Delivery(int event) {
+            this.event = event;
+        }
+
+        private void begin(){
+            pending.incrementAndGet();
+        }
+
+        private CompletableFuture<Void> end(){
+            if(pending.decrementAndGet() == 0){
+                Throwable first = failures.poll();
+                if(first == null){
+                    future.complete(null);
+                } else {
+                    //not a CompletionException, because the future would unwrap that and lose the other failures
+                    RuntimeException exception = new RuntimeException((failures.size() + 1) + " handlers of event " + getEventName(event) + " failed", first);
+                    failures.forEach(exception::addSuppressed);
+                    future.completeExceptionally(exception);
+                }
+            }
+            return future;
+        }
+
+        private void fail(Throwable failure){
+            failures.add(failure);
+        }
+
+        private void run(Runnable runnable){
+            try{
+                runnable.run();
+            } catch (Throwable t){
+                fail(t);
+            }
+        }
+
+        private void runAll(Runnable[] runnables){
+            for (Runnable runnable : runnables)
+                run(runnable);
+        }
+    }
+
+    /**
+     * The managers that matched a pattern while the tree had a certain version
+     */
+    private record PatternMatch(int version, EventManager[] managers) {}
+
+    /**
+     * The dispatch lists of the subtree by event id that were built while the subtree had a certain stamp
+     */
+    private static final class DispatchCache {
+        private final int stamp;
+        private final Object[][] lists;
+
+        private DispatchCache(int stamp, Object[][] lists) {
+            this.stamp = stamp;
+            this.lists = lists;
+        }
+    }
 }
@@ -2,17 +2,74 @@ package om.self.task.core;
 
 import om.self.structure.NamedStructure;
 import om.self.structure.bidirectional.KeyedBidirectionalStructure;
-import java.util.Hashtable;
+import om.self.task.admission.AdmissionPolicy;
+import om.self.task.admission.OldestEvictionPolicy;
+import om.self.task.metrics.GroupMetrics;
+import om.self.task.metrics.RunStats;
+import om.self.task.snapshot.GroupSnapshot;
+import om.self.task.snapshot.NodeSnapshot;
+import om.self.task.snapshot.NodeStatus;
+import om.self.task.snapshot.RunnableSnapshot;
+import om.self.task.snapshot.SnapshotRenderer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiPredicate;
 
 /**
  * A structure class that can manage and run {@link Runnable} like {@link Task}.
+ * @apiNote the methods that change the children, like {@link Group#runKeyedCommand(String, Command)} and {@link Group#attachChild(Object, Object)}, must only be called by the thread running this group. Other threads should use {@link Group#post(Runnable)} and the other post methods, which go through a lock-free inbox that is drained at the start of every tick.
  */
 public class Group extends KeyedBidirectionalStructure<String, Group, Runnable> implements Runnable, NamedStructure<String>{
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = Thread.ofVirtual().name("task-step-", 0).factory();
+    /**
+     * runs every action on a new virtual thread(this is the step executor used when no group sets one)
+     */
+    public static final Executor VIRTUAL_THREADS = action -> VIRTUAL_THREAD_FACTORY.newThread(action).start();
+
     private String name;
-    private final Hashtable<String, Runnable> activeRunnables = new Hashtable<>();
-    private final LinkedList<Runnable> queuedGroupActions = new LinkedList<>();
+    private final ActiveRunnableRegistry activeRunnables = new ActiveRunnableRegistry();
+    private ArrayDeque<Runnable> queuedGroupActions = new ArrayDeque<>();
+    private ArrayDeque<Runnable> drainingGroupActions = new ArrayDeque<>();
+    /**
+     * the number of keyed commands in {@link Group#queuedGroupActions} and {@link Group#drainingGroupActions} that were dropped and get skipped when they are reached
+     */
+    private int droppedGroupActions;
+
+    /**
+     * the slot of every child that has been given a handle(see {@link Group#getHandle(String)})
+     */
+    private final ConcurrentHashMap<String, ChildSlot> slotsByKey = new ConcurrentHashMap<>();
+    /**
+     * the slots by handle(changed while holding {@link Group#slotsByKey}, and replaced with a bigger copy when it grows so readers on other threads never see a half copied array)
+     */
+    private volatile ChildSlot[] slots = new ChildSlot[0];
+    private int[] freeHandles = new int[0];
+    private int freeHandleCount = 0;
+    private int nextHandle = 0;
+    /**
+     * one bit per handle that is set while the child is in the active runnables, in chunks of {@link Group#HANDLES_PER_CHUNK} handles.
+     * Each word is changed with a compare and set, and growing only adds chunks(while holding {@link Group#slotsByKey}) so a bit set in an old copy of the array is never lost.
+     */
+    private volatile AtomicLongArray[] activeBits = new AtomicLongArray[0];
+    /**
+     * the handle of this group in its parent(-1 until it is looked up)
+     */
+    private int parentHandle = -1;
 
     /**
      * Whether this group should automatically be paused and started based on if there are any active runnables
@@ -29,6 +86,81 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
      */
     public boolean forceActiveRunnablesDefault = false;
 
+    /**
+     * decides what happens when a child is started while {@link Group#maxActiveRunnables} children are active
+     */
+    private AdmissionPolicy admissionPolicy = new OldestEvictionPolicy();
+
+    /**
+     * the run time metrics of this group(null while metrics are disabled)
+     */
+    private volatile GroupMetrics metrics;
+
+    /**
+     * the clock set for this group(null means the clock of the parent is used)
+     */
+    private TickClock clock;
+    /**
+     * the clock used while this group has no parent and no clock set
+     */
+    private TickClock rootClock;
+
+    /**
+     * the children that are sleeping until a wake up time(see {@link Group#sleepChild(String, long)})
+     */
+    private final HashMap<String, TimerWheel.Timeout> sleeping = new HashMap<>();
+    /**
+     * the wheel the sleeping children are parked in(created the first time a child sleeps)
+     */
+    private TimerWheel sleepers;
+    /**
+     * the time of one slot of the timer wheel in nanoseconds
+     */
+    private long timerResolutionNanos = 100_000;
+
+    /**
+     * the children that are parked until {@link Group#wakeChild(String)} is called
+     */
+    private final HashSet<String> parked = new HashSet<>();
+    /**
+     * the keys passed to {@link Group#wakeChild(String)} that haven't been woken up yet(this can be added to from any thread)
+     */
+    private final ConcurrentLinkedQueue<String> wakeRequests = new ConcurrentLinkedQueue<>();
+    /**
+     * the parent this group parked itself in because every child was parked(null while this group isn't parked by itself)
+     */
+    private volatile Group parkedIn;
+
+    /**
+     * counts up once when this group starts running without a parent and once when it is done, so it is odd while the tree is ticked.
+     * Only the thread running this group changes it, and {@link Group#requestSnapshot()} reads it before and after taking a snapshot on another thread to check that no tick ran in between.
+     */
+    private volatile int tickSequence = 0;
+
+    /**
+     * whether this group is in the active runnables of its parent(kept up to date by the parent, so {@link Group#isRunning()} doesn't have to look it up)
+     */
+    private volatile boolean running = false;
+
+    /**
+     * whether a bulk command is running, which holds back {@link Group#autoManage} until the whole batch is done
+     */
+    private boolean batching = false;
+
+    /**
+     * the actions posted from any thread(see {@link Group#post(Runnable)}), made the first time something is posted
+     */
+    private volatile CommandInbox inbox;
+    /**
+     * the maximum number of actions that can wait in the inbox
+     */
+    private int inboxCapacity = 1024;
+
+    /**
+     * the executor blocking steps are run on(null means the executor of the parent is used)
+     */
+    private Executor stepExecutor;
+
 
     //----------CONSTRUCTOR----------//
     /**
@@ -82,7 +214,7 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
      * @return {@link Group#activeRunnables}
      * @apiNote DO NOT use this to add or remove from the active runnables. Use {@link Group#runKeyedCommand(String, Command, Object...)} because there are checks that need to be run.
      */
-    public Hashtable<String, Runnable> getActiveRunnables() {
+    public ActiveRunnableRegistry getActiveRunnables() {
         return activeRunnables;
     }
 
@@ -97,18 +229,45 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
 
     /**
      * gets the queued actions to run whenever {@link Group#run()} is called
-     * @return {@link Group#queuedGroupActions}
+     * @return a copy of the queued actions in the order they will run(changing it doesn't change the queue, use {@link Group#addToQueuedGroupActions(Runnable)} for that)
      */
     public LinkedList<Runnable> getQueuedGroupActions() {
-        return queuedGroupActions;
+        LinkedList<Runnable> actions = new LinkedList<>();
+        //a keyed command only runs at its last entry, so go backwards and skip the entries before it
+        HashSet<Runnable> seen = new HashSet<>();
+        for (Iterator<Runnable> it = queuedGroupActions.descendingIterator(); it.hasNext();)
+            addIfRuns(actions, it.next(), seen);
+        for (Iterator<Runnable> it = drainingGroupActions.descendingIterator(); it.hasNext();)
+            addIfRuns(actions, it.next(), seen);
+        return actions;
+    }
+
+    private static void addIfRuns(LinkedList<Runnable> actions, Runnable action, HashSet<Runnable> seen){
+        if(action instanceof KeyedAction && (!((KeyedAction) action).queued || !seen.add(action))) return;
+        actions.addFirst(action);
     }
 
     /**
-     * 1
-     * @param runnable 1
+     * adds an action to run the next time {@link Group#run()} is called. Actions run in the order they were added and the same action can be added more than once, except for keyed commands(see {@link Group#getKeyedAction(String, Command)}) which are coalesced in O(1) so a command that is already queued for a child isn't queued again.
+     * Queuing {@link Command#START} or {@link Command#PAUSE} for a child also drops the opposite command if it is still queued for that child, so only the last one runs(start, pause, start leaves the child started, at the position of the last start).
+     * @param runnable the action to queue
      */
     public void addToQueuedGroupActions(Runnable runnable){
-        queuedGroupActions.add(runnable);
+        if(runnable instanceof KeyedAction){
+            KeyedAction action = (KeyedAction) runnable;
+            //the dropped entry stays in the queue and is skipped when it is reached, so dropping is O(1)
+            KeyedAction opposite = action.getOpposite();
+            if(opposite != null && opposite.queued){
+                opposite.queued = false;
+                opposite.dropped++;
+                droppedGroupActions++;
+            }
+
+            if(action.queued) return;
+            action.queued = true;
+        }
+
+        queuedGroupActions.addLast(runnable);
     }
 
     /**
@@ -120,12 +279,150 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
     }
 
     /**
-     * sets the maximum number of runnables that can run at once(anything less than 1 is infinity)
+     * sets the maximum number of runnables that can run at once(anything less than 1 is infinity). Sleeping and parked children keep their slot, so they count as well.
      * @param maxActiveRunnables the maximum active runnables
      */
     public void setMaxActiveRunnables(int maxActiveRunnables) {
         if(maxActiveRunnables == 0) maxActiveRunnables = -1;
         this.maxActiveRunnables = maxActiveRunnables;
+        admitWaiting();
+    }
+
+    /**
+     * gets the policy that decides what happens when a child is started while {@link Group#maxActiveRunnables} children are active
+     * @return the admission policy
+     */
+    public AdmissionPolicy getAdmissionPolicy() {
+        return admissionPolicy;
+    }
+
+    /**
+     * sets the policy that decides what happens when a child is started while {@link Group#maxActiveRunnables} children are active(children waiting in the old policy are forgotten)
+     * @param admissionPolicy the admission policy(every group needs its own instance)
+     */
+    public void setAdmissionPolicy(AdmissionPolicy admissionPolicy) {
+        if(admissionPolicy == null) throw new IllegalArgumentException("admissionPolicy can not be null!");
+        this.admissionPolicy = admissionPolicy;
+        for (String key : activeRunnables.snapshot().keys())
+            admissionPolicy.onStarted(this, key);
+    }
+
+
+    /**
+     * gets the clock of this group. If no clock is set then the clock of the parent is used, and root groups without a clock use a {@link CachedTickClock}.
+     * @return the clock used by this group and the time based tasks in it
+     */
+    public TickClock getClock() {
+        if(clock != null) return clock;
+        if(isParentAttached()) return getParent().getClock();
+
+        if(rootClock == null) rootClock = new CachedTickClock();
+        return rootClock;
+    }
+
+    /**
+     * sets the clock of this group, which is ticked by this group and used by everything in it that doesn't have its own clock
+     * @param clock the clock(null to use the clock of the parent)
+     */
+    public void setClock(TickClock clock) {
+        this.clock = clock;
+        //the wheel counts from the time of the old clock, so it is made again with the new one
+        if(sleepers != null && sleepers.size() == 0) sleepers = null;
+    }
+
+    /**
+     * gets the time of one slot of the timer wheel sleeping children are parked in. Children wake up on the first tick after their wake up time rounded up to this.
+     * @return the resolution in nanoseconds
+     */
+    public long getTimerResolutionNanos() {
+        return timerResolutionNanos;
+    }
+
+    /**
+     * sets the time of one slot of the timer wheel sleeping children are parked in(only used once no children are sleeping)
+     * @param timerResolutionNanos the resolution in nanoseconds(must be more than 0)
+     */
+    public void setTimerResolutionNanos(long timerResolutionNanos) {
+        if(timerResolutionNanos <= 0) throw new IllegalArgumentException("timerResolutionNanos must be more than 0!");
+        this.timerResolutionNanos = timerResolutionNanos;
+        if(sleepers != null && sleepers.size() == 0) sleepers = null;
+    }
+
+    /**
+     * gets the maximum number of posted actions that can wait for the next tick(see {@link Group#post(Runnable)})
+     * @return the inbox capacity
+     */
+    public int getInboxCapacity() {
+        CommandInbox current = inbox;
+        return current != null ? current.capacity() : inboxCapacity;
+    }
+
+    /**
+     * sets the maximum number of posted actions that can wait for the next tick. The inbox is made the first time something is posted, and after that other threads can hold on to it, so it can't be resized anymore.
+     * @param inboxCapacity the capacity(rounded up to a power of 2)
+     * @throws IllegalStateException if something was already posted to this group
+     */
+    public synchronized void setInboxCapacity(int inboxCapacity) {
+        if(inboxCapacity <= 0) throw new IllegalArgumentException("inboxCapacity must be more than 0!");
+        if(inbox != null) throw new IllegalStateException("the inbox can not be resized after something was posted!");
+        this.inboxCapacity = inboxCapacity;
+    }
+
+    /**
+     * gets the number of posted actions waiting for the next tick(only an estimate while other threads are posting)
+     * @return the number of waiting actions
+     */
+    public int getInboxSize() {
+        CommandInbox current = inbox;
+        return current != null ? current.size() : 0;
+    }
+
+    /**
+     * gets the executor that blocking steps(see {@link TaskEx#addBlockingStep(Runnable)}) of the tasks in this group are run on. If no executor is set then the executor of the parent is used, and root groups without an executor use {@link Group#VIRTUAL_THREADS}.
+     * @return the step executor
+     */
+    public Executor getStepExecutor() {
+        if(stepExecutor != null) return stepExecutor;
+        if(isParentAttached()) return getParent().getStepExecutor();
+        return VIRTUAL_THREADS;
+    }
+
+    /**
+     * sets the executor that blocking steps of the tasks in this group are run on
+     * @param stepExecutor the executor(null to use the executor of the parent)
+     */
+    public void setStepExecutor(Executor stepExecutor) {
+        this.stepExecutor = stepExecutor;
+    }
+
+    /**
+     * gets the run time metrics of this group
+     * @return the metrics or null if they are disabled
+     */
+    public GroupMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * starts recording how long every tick, queue drain and child run takes(if metrics are already enabled then the existing metrics are kept)
+     * @return the metrics of this group
+     */
+    public GroupMetrics enableMetrics() {
+        GroupMetrics current = metrics;
+        if(current == null){
+            current = new GroupMetrics(this);
+            metrics = current;
+        }
+        return current;
+    }
+
+    /**
+     * stops recording metrics and unregisters them from JMX if they were registered
+     */
+    public void disableMetrics() {
+        GroupMetrics current = metrics;
+        metrics = null;
+        if(current != null) current.unregisterMBean();
     }
 
 
@@ -135,7 +432,7 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
      * @return 1
      */
     public boolean isRunning() {
-        return isParentAttached() && getParent().getActiveRunnable(getParentKey()) != null;
+        return running;
     }
 
     /**
@@ -143,7 +440,12 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
      * @return 1
      */
     public boolean isDone(){
-        return activeRunnables.isEmpty() && queuedGroupActions.isEmpty();
+        return activeRunnables.isEmpty() && sleeping.isEmpty() && parked.isEmpty() && queuedGroupActions.isEmpty() && drainingGroupActions.isEmpty() && isInboxEmpty();
+    }
+
+    private boolean isInboxEmpty(){
+        CommandInbox current = inbox;
+        return current == null || current.isEmpty();
     }
 
     /**
@@ -155,11 +457,75 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
         return getActiveRunnable(key) != null;
     }
 
+    /**
+     * checks if a child is running with a single bit test(see {@link Group#getHandle(String)})
+     * @param handle the handle of the child
+     * @return whether the child is running
+     */
+    public boolean isChildRunning(int handle){
+        AtomicLongArray[] chunks = activeBits;
+        if(handle < 0 || handle / HANDLES_PER_CHUNK >= chunks.length) return false;
+        return (chunks[handle / HANDLES_PER_CHUNK].get((handle % HANDLES_PER_CHUNK) >>> 6) & (1L << handle)) != 0;
+    }
+
+    /**
+     * checks if a child is waiting for a free slot to start(see {@link Group#getAdmissionPolicy()})
+     * @param key the key of the child
+     * @return whether the child is waiting
+     */
+    public boolean isChildWaiting(String key){
+        return admissionPolicy.isWaiting(key);
+    }
+
+    /**
+     * checks if a child is sleeping until its wake up time(see {@link Group#sleepChild(String, long)})
+     * @param key the key of the child
+     * @return whether the child is sleeping
+     */
+    public boolean isChildSleeping(String key){
+        return sleeping.containsKey(key);
+    }
+
+    /**
+     * gets the number of children that are sleeping
+     * @return the number of sleeping children
+     */
+    public int getSleepingCount(){
+        return sleeping.size();
+    }
+
+    /**
+     * checks if a child is parked until it is woken up(see {@link Group#parkChild(String)})
+     * @param key the key of the child
+     * @return whether the child is parked
+     */
+    public boolean isChildParked(String key){
+        return parked.contains(key);
+    }
+
+    /**
+     * gets the number of children that are parked
+     * @return the number of parked children
+     */
+    public int getParkedCount(){
+        return parked.size();
+    }
+
 
     //----------IMPLEMENT Structure methods----------//
     @Override
     public void onChildDetach(String key, Runnable child) {
-        activeRunnables.remove(key);
+        boolean hadSlot = unpark(key);
+        hadSlot |= removeActive(key);
+        admissionPolicy.onPaused(this, key);
+        freeSlot(key);
+        if(child instanceof Task){
+            ((Task) child).clearParentHandle();
+            ((Task) child).cancelCompletion();
+        } else if(child instanceof Group) ((Group) child).parentHandle = -1;
+        GroupMetrics metrics = this.metrics;
+        if(metrics != null) metrics.removeChild(key);
+        if(hadSlot) admitWaiting();
     }
 
     /**
@@ -171,11 +537,123 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
     }
 
     /**
-     *
-     * @param child
+     * attaches a child with its name as the key
+     * @param child the child(must be a {@link Runnable})
+     * @return the handle of the child(see {@link Group#getHandle(String)})
      */
-    public void attachChild(NamedStructure<String> child){
+    public int attachChild(NamedStructure<String> child){
         attachChild(child.getName(), (Runnable) child);
+        return getHandle(child.getName());
+    }
+
+
+    //----------HANDLES----------//
+    /**
+     * gets the handle of a child, which is a small int that stays the same until the child is detached(then it may be given to another child).
+     * Handles can be used instead of keys to check and command children without hashing the key(see {@link Group#runHandleCommand(int, Command)} and {@link Group#isChildRunning(int)}).
+     * @param key the key of the child
+     * @return the handle or -1 if there is no child with the key
+     */
+    public int getHandle(String key){
+        ChildSlot slot = getSlot(key);
+        return slot != null ? slot.handle : -1;
+    }
+
+    /**
+     * gets the key of the child with a handle
+     * @param handle the handle
+     * @return the key or null if no child has the handle
+     */
+    public String getKey(int handle){
+        ChildSlot slot = getSlot(handle);
+        return slot != null ? slot.key : null;
+    }
+
+    /**
+     * gets the child with a handle
+     * @param handle the handle
+     * @return the child or null if no child has the handle
+     */
+    public Runnable getChildByHandle(int handle){
+        ChildSlot slot = getSlot(handle);
+        return slot != null ? getChild(slot.key) : null;
+    }
+
+    private ChildSlot getSlot(int handle){
+        ChildSlot[] current = slots;
+        return handle >= 0 && handle < current.length ? current[handle] : null;
+    }
+
+    /**
+     * gets the slot of a child and gives it a handle if it doesn't have one yet
+     * @param key the key of the child
+     * @return the slot or null if there is no child with the key
+     */
+    private ChildSlot getSlot(String key){
+        ChildSlot slot = slotsByKey.get(key);
+        if(slot != null) return slot;
+
+        synchronized (slotsByKey) {
+            slot = slotsByKey.get(key);
+            if(slot != null) return slot;
+            if(getChild(key) == null) return null;
+
+            int handle = freeHandleCount > 0 ? freeHandles[--freeHandleCount] : nextHandle++;
+            ChildSlot[] current = slots;
+            if(handle >= current.length){
+                current = Arrays.copyOf(current, Math.max(current.length << 1, 16));
+                AtomicLongArray[] chunks = activeBits;
+                if(chunks.length * HANDLES_PER_CHUNK < current.length){
+                    int oldLength = chunks.length;
+                    chunks = Arrays.copyOf(chunks, (current.length + HANDLES_PER_CHUNK - 1) / HANDLES_PER_CHUNK);
+                    for (int i = oldLength; i < chunks.length; i++)
+                        chunks[i] = new AtomicLongArray(HANDLES_PER_CHUNK >>> 6);
+                    activeBits = chunks;
+                }
+            }
+
+            slot = new ChildSlot(key, handle);
+            current[handle] = slot;
+            slots = current;
+            //the slot is published before checking the registry, so either this sees a start on the tick thread or the tick thread sees the slot
+            slotsByKey.put(key, slot);
+            if(activeRunnables.containsKey(key)) setActiveBit(handle, true);
+            return slot;
+        }
+    }
+
+    private void freeSlot(String key){
+        synchronized (slotsByKey) {
+            ChildSlot slot = slotsByKey.remove(key);
+            if(slot == null) return;
+
+            slots[slot.handle] = null;
+            setActiveBit(slot.handle, false);
+            if(freeHandleCount == freeHandles.length) freeHandles = Arrays.copyOf(freeHandles, Math.max(freeHandles.length << 1, 16));
+            freeHandles[freeHandleCount++] = slot.handle;
+        }
+    }
+
+    private void setActiveBit(int handle, boolean active){
+        //the chunk is never replaced once it exists, so the compare and set can't race with the array growing
+        AtomicLongArray bits = activeBits[handle / HANDLES_PER_CHUNK];
+        int word = (handle % HANDLES_PER_CHUNK) >>> 6;
+        if(active) bits.getAndAccumulate(word, 1L << handle, (current, bit) -> current | bit);
+        else bits.getAndAccumulate(word, ~(1L << handle), (current, keep) -> current & keep);
+    }
+
+    /**
+     * gets the handle of a child without giving it one. The handle the child cached for its own commands is used if it has one, so most starts and pauses don't look the key up again.
+     * @param key the key of the child
+     * @param child the child
+     * @return the handle or -1 if the child doesn't have one
+     */
+    private int peekHandle(String key, Runnable child){
+        int handle = child instanceof Task ? ((Task) child).getParentHandle() : child instanceof Group ? ((Group) child).parentHandle : -1;
+        if(handle >= 0) return handle;
+
+        ChildSlot slot = slotsByKey.get(key);
+        return slot != null ? slot.handle : -1;
     }
 
     //----------Commands----------//
@@ -187,37 +665,63 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
      * @return 1
      */
     public boolean runKeyedCommand(String key, Command command, Object... args){
+        boolean force = forceActiveRunnablesDefault;
+        if(args != null && args.length > 0 && args[0] instanceof Boolean)
+            force = (Boolean) args[0];
+
+        return runKeyedCommand(key, command, force);
+    }
+
+    /**
+     * runs a command on the child with the passed in key without any arguments(this avoids allocating the varargs array on the hot path)
+     * @param key the key of the child
+     * @param command the command to run
+     * @return whether the command was successful
+     */
+    public boolean runKeyedCommand(String key, Command command){
+        return runKeyedCommand(key, command, forceActiveRunnablesDefault);
+    }
+
+    /**
+     * runs a command on the child with the passed in key
+     * @param key the key of the child
+     * @param command the command to run
+     * @param force whether {@link Command#START} can remove another active runnable when {@link Group#maxActiveRunnables} is reached
+     * @return whether the command was successful
+     */
+    public boolean runKeyedCommand(String key, Command command, boolean force){
         switch (command){
             case START: {
-                if(activeRunnables.size() == maxActiveRunnables){
-                    boolean force = forceActiveRunnablesDefault;
-                    try{
-                        force = (boolean) args[0];
-                    } catch (Exception ignore){}
+                //a sleeping or parked child already has a slot, so it doesn't need another one
+                if(maxActiveRunnables > 0 && !activeRunnables.containsKey(key) && getUsedSlots() - (hasReservedSlot(key) ? 1 : 0) >= maxActiveRunnables){
+                    if(getChild(key) == null) return false;
 
-                    if(!force) return false;
+                    String evicted = admissionPolicy.onFull(this, key, force);
+                    if(evicted == null) return false;
 
-                    activeRunnables.remove(activeRunnables.keys().nextElement());
+                    removeActive(evicted);
+                    //a policy that keeps the evicted child waiting starts it again later, otherwise it is paused like with PAUSE
+                    if(!admissionPolicy.isWaiting(evicted)) onChildPaused(evicted);
                 }
 
+                unpark(key);
                 return startRunnable(key);
             }
             case PAUSE: {
-                activeRunnables.remove(key);
-                if(autoManage && isParentAttached() && activeRunnables.isEmpty())
+                boolean hadSlot = unpark(key);
+                hadSlot |= removeActive(key);
+                onChildPaused(key);
+                if(hadSlot) admitWaiting();
+                if(autoManage && !batching && isParentAttached() && activeRunnables.isEmpty() && sleeping.isEmpty() && parked.isEmpty())
                     runCommand(Command.QUE_PAUSE);
                 break;
             }
             case QUE_PAUSE: {
-                Runnable pause = () -> runKeyedCommand(key, Command.PAUSE);
-                if(!queuedGroupActions.contains(pause))
-                    addToQueuedGroupActions(pause);
+                addToQueuedGroupActions(getKeyedAction(key, Command.PAUSE));
                 break;
             }
             case QUE_START:{
-                Runnable start = () -> runKeyedCommand(key, Command.START);
-                if(!queuedGroupActions.contains(start))
-                    addToQueuedGroupActions(start);
+                addToQueuedGroupActions(getKeyedAction(key, Command.START));
                 break;
             }
             case NONE:
@@ -228,15 +732,175 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
         return true;
     }
 
+    /**
+     * takes a child out of the active runnables until the clock of this group reaches wakeNanos, then starts it again with {@link Command#START}.
+     * While it sleeps the child is parked in a timer wheel, so it costs nothing per tick, and it still counts as work for {@link Group#isDone()} and {@link Group#autoManage}.
+     * It also keeps its slot(see {@link Group#setMaxActiveRunnables(int)}), so no other child can take it and the child can always start again when it wakes up.
+     * Starting, pausing or waking({@link Group#wakeChild(String)}) the child wakes it up early.
+     * @param key the key of the child
+     * @param wakeNanos the time from {@link Group#getClock()} to wake the child up at
+     * @return true if the child is now sleeping, false if it doesn't exist or the wake up time already passed
+     */
+    public boolean sleepChild(String key, long wakeNanos){
+        if(getChild(key) == null) return false;
+        long now = getClock().nanoTime();
+        if(wakeNanos - now <= 0) return false;
+
+        unpark(key);
+        if(sleepers == null) sleepers = new TimerWheel(timerResolutionNanos, now, this::wakeSleeper);
+        sleeping.put(key, sleepers.schedule(key, wakeNanos));
+
+        removeActive(key);
+        //the policy stops counting the slice of the child or stops keeping it waiting until it starts again
+        admissionPolicy.onPaused(this, key);
+        return true;
+    }
+
+    /**
+     * takes a child out of the active runnables until {@link Group#wakeChild(String)} is called, then starts it again with {@link Command#START}.
+     * Like a sleeping child, a parked child costs nothing per tick, still counts as work for {@link Group#isDone()} and {@link Group#autoManage} and keeps its slot.
+     * @param key the key of the child
+     * @return true if the child is now parked, false if it doesn't exist
+     */
+    public boolean parkChild(String key){
+        if(getChild(key) == null) return false;
+
+        unpark(key);
+        parked.add(key);
+        removeActive(key);
+        admissionPolicy.onPaused(this, key);
+        return true;
+    }
+
+    /**
+     * takes an active child out of the active runnables so a waiting child can have its slot, without pausing it: the admission policy isn't told and a {@link Task} keeps its completion future.
+     * This is for admission policies that put the child back in their wait queue(like {@link om.self.task.admission.WeightedRoundRobinPolicy}), anything else should use {@link Command#PAUSE}.
+     * @param key the key of the child
+     * @return whether the child was active
+     */
+    public boolean preemptChild(String key){
+        if(!removeActive(key)) return false;
+        admitWaiting();
+        return true;
+    }
+
+    /**
+     * wakes up a parked or sleeping child at the start of the next tick. This can be called from any thread, and it does nothing if the child isn't parked or sleeping by then.
+     * @param key the key of the child
+     */
+    public void wakeChild(String key){
+        if(key == null) throw new IllegalArgumentException("key can not be null!");
+        wakeRequests.add(key);
+
+        Group parent = parkedIn;
+        if(parent != null) parent.wakeChild(getParentKey());
+    }
+
+    /**
+     * cancels the sleep or park of a child without starting it
+     * @param key the key of the child
+     * @return whether the child was sleeping or parked
+     */
+    private boolean unpark(String key){
+        if(!parked.isEmpty() && parked.remove(key)) return true;
+        if(sleeping.isEmpty()) return false;
+
+        TimerWheel.Timeout timeout = sleeping.remove(key);
+        if(timeout == null) return false;
+        sleepers.cancel(timeout);
+        return true;
+    }
+
+    private void wakeSleeper(TimerWheel.Timeout timeout){
+        sleeping.remove(timeout.key);
+        restartWoken(timeout.key);
+    }
+
+    /**
+     * starts a child that stopped sleeping or being parked. It kept its slot, so this only fails if the child was put to sleep or parked while it wasn't active in a full group, and then the admission policy decides like for any other start.
+     * @param key the key of the child
+     */
+    private void restartWoken(String key){
+        runKeyedCommand(key, Command.START, false);
+    }
+
+    /**
+     * gets the number of slots in use, which are the active children and the sleeping and parked children that keep their slot
+     * @return the number of used slots
+     */
+    private int getUsedSlots(){
+        return activeRunnables.size() + sleeping.size() + parked.size();
+    }
+
+    /**
+     * checks if a child is sleeping or parked and so keeps a slot
+     * @param key the key of the child
+     * @return whether the child has a slot without being active
+     */
+    private boolean hasReservedSlot(String key){
+        return (!sleeping.isEmpty() && sleeping.containsKey(key)) || (!parked.isEmpty() && parked.contains(key));
+    }
+
+    /**
+     * tells the admission policy and the child that the child was paused(a {@link Task} cancels its completion unless it just completed)
+     * @param key the key of the child
+     */
+    private void onChildPaused(String key){
+        admissionPolicy.onPaused(this, key);
+        Runnable child = getChild(key);
+        if(child instanceof Task) ((Task) child).onPaused();
+    }
+
     private boolean startRunnable(String key){
         Runnable runnable = getChild(key);
         if(runnable == null) return false;
         activeRunnables.put(key, runnable);
-        if(autoManage && isParentAttached() && !isRunning())
+        setRunning(runnable, true);
+        int handle = peekHandle(key, runnable);
+        if(handle >= 0) setActiveBit(handle, true);
+        admissionPolicy.onStarted(this, key);
+        if(autoManage && !batching && isParentAttached() && !isRunning())
             runCommand(Command.QUE_START);
         return true;
     }
 
+    private boolean removeActive(String key){
+        Runnable removed = activeRunnables.remove(key);
+        if(removed == null) return false;
+        setRunning(removed, false);
+        int handle = peekHandle(key, removed);
+        if(handle >= 0) setActiveBit(handle, false);
+        return true;
+    }
+
+    /**
+     * updates the cached running state of a child. Every change to {@link Group#activeRunnables} goes through {@link Group#startRunnable(String)} or {@link Group#removeActive(String)}, which call this.
+     * @param child the child
+     * @param running whether the child is now in the active runnables
+     */
+    private static void setRunning(Runnable child, boolean running){
+        if(child instanceof Task) ((Task) child).setRunning(running);
+        else if(child instanceof Group) ((Group) child).running = running;
+    }
+
+    /**
+     * starts waiting children from {@link Group#admissionPolicy} until there are no free slots or nothing is waiting
+     */
+    private void admitWaiting(){
+        if(maxActiveRunnables < 0) {
+            //everything can run, so nothing should be left waiting
+            for (String next = admissionPolicy.nextWaiting(this); next != null; next = admissionPolicy.nextWaiting(this))
+                startRunnable(next);
+            return;
+        }
+
+        while(getUsedSlots() < maxActiveRunnables){
+            String next = admissionPolicy.nextWaiting(this);
+            if(next == null) return;
+            startRunnable(next);
+        }
+    }
+
     /**
      * 1
      * @param command 1
@@ -248,13 +912,545 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
         return false;
     }
 
+    /**
+     * runs a command on this group without any arguments(this avoids allocating the varargs array on the hot path)
+     * @param command the command to run
+     * @return whether the command was successful(false if there is no parent)
+     */
+    public boolean runCommand(Command command) {
+        if(!isParentAttached()) return false;
+
+        Group parent = getParent();
+        if(parentHandle < 0) parentHandle = parent.getHandle(getParentKey());
+        if(parentHandle < 0) return parent.runKeyedCommand(getParentKey(), command);
+        return parent.runHandleCommand(parentHandle, command);
+    }
+
+    /**
+     * gets the action that runs a command on a child. The action is only created once per key and command, so queuing it doesn't allocate and the same action can be found again in {@link Group#queuedGroupActions}.
+     * @param key the key of the child
+     * @param command the command the action runs
+     * @return the action
+     */
+    protected Runnable getKeyedAction(String key, Command command){
+        ChildSlot slot = getSlot(key);
+        //there is nothing to cache the action in if the child doesn't exist, and the command will just fail when it runs
+        return slot != null ? slot.getAction(command) : new KeyedAction(key, command, null);
+    }
+
+    /**
+     * runs a command on the child with a handle(see {@link Group#getHandle(String)}). Queued commands are added straight from the slot of the child without hashing the key, and the rest work like {@link Group#runKeyedCommand(String, Command)}.
+     * @param handle the handle of the child
+     * @param command the command to run
+     * @return whether the command was successful(false if no child has the handle)
+     */
+    public boolean runHandleCommand(int handle, Command command){
+        ChildSlot slot = getSlot(handle);
+        if(slot == null) return false;
+
+        switch (command){
+            case QUE_PAUSE:
+                addToQueuedGroupActions(slot.getAction(Command.PAUSE));
+                return true;
+            case QUE_START:
+                addToQueuedGroupActions(slot.getAction(Command.START));
+                return true;
+            default:
+                return runKeyedCommand(slot.key, command);
+        }
+    }
+
+
+    //----------BULK COMMANDS----------//
+    /**
+     * starts every child in keys in one pass. {@link Group#autoManage} only updates the parent once at the end instead of once per child.
+     * @param keys the keys of the children to start
+     * @return the number of children that were started
+     */
+    public int startAll(Collection<String> keys){
+        if(keys == null) throw new IllegalArgumentException("keys can not be null!");
+
+        boolean outer = beginBatch();
+        int started = 0;
+        try {
+            for (String key : keys)
+                if(runKeyedCommand(key, Command.START)) started++;
+        } finally {
+            endBatch(outer, started > 0);
+        }
+        return started;
+    }
+
+    /**
+     * starts every child that matches a filter in one pass(see {@link Group#startAll(Collection)})
+     * @param filter gets the key and the child and returns whether to start it
+     * @return the number of children that were started
+     */
+    public int startMatching(BiPredicate<String, Runnable> filter){
+        if(filter == null) throw new IllegalArgumentException("filter can not be null!");
+
+        boolean outer = beginBatch();
+        int started = 0;
+        try {
+            for (Map.Entry<String, Runnable> entry : getChildrenAndKeys().entrySet())
+                if(filter.test(entry.getKey(), entry.getValue()) && runKeyedCommand(entry.getKey(), Command.START)) started++;
+        } finally {
+            endBatch(outer, started > 0);
+        }
+        return started;
+    }
+
+    /**
+     * pauses every child in keys in one pass. {@link Group#autoManage} only updates the parent once at the end instead of once per child.
+     * @param keys the keys of the children to pause
+     * @return the number of children that were active, sleeping or parked and are now paused
+     */
+    public int pauseAll(Collection<String> keys){
+        if(keys == null) throw new IllegalArgumentException("keys can not be null!");
+
+        boolean outer = beginBatch();
+        int paused = 0;
+        try {
+            for (String key : keys)
+                if(pause(key)) paused++;
+        } finally {
+            endBatch(outer, paused > 0);
+        }
+        return paused;
+    }
+
+    /**
+     * pauses every active, sleeping or parked child that matches a filter in one pass(see {@link Group#pauseAll(Collection)})
+     * @param filter gets the key and the child and returns whether to pause it
+     * @return the number of children that were paused
+     */
+    public int pauseMatching(BiPredicate<String, Runnable> filter){
+        if(filter == null) throw new IllegalArgumentException("filter can not be null!");
+
+        boolean outer = beginBatch();
+        int paused = 0;
+        try {
+            for (Map.Entry<String, Runnable> entry : getChildrenAndKeys().entrySet())
+                if(filter.test(entry.getKey(), entry.getValue()) && pause(entry.getKey())) paused++;
+        } finally {
+            endBatch(outer, paused > 0);
+        }
+        return paused;
+    }
+
+    /**
+     * attaches every child in children in one pass and optionally starts them
+     * @param children the children by key
+     * @param start whether to start the children once they are attached
+     * @return the number of children that were started(0 if start is false)
+     */
+    public int attachAll(Map<String, ? extends Runnable> children, boolean start){
+        if(children == null) throw new IllegalArgumentException("children can not be null!");
+
+        boolean outer = beginBatch();
+        int started = 0;
+        try {
+            for (Map.Entry<String, ? extends Runnable> entry : children.entrySet())
+                attach(entry.getKey(), entry.getValue());
+            if(start)
+                for (String key : children.keySet())
+                    if(runKeyedCommand(key, Command.START)) started++;
+        } finally {
+            endBatch(outer, started > 0);
+        }
+        return started;
+    }
+
+    /**
+     * detaches every child in keys in one pass. If that leaves nothing to run then {@link Group#autoManage} pauses this group once at the end.
+     * @param keys the keys of the children to detach
+     * @return the number of children that were detached
+     */
+    public int detachAll(Collection<String> keys){
+        if(keys == null) throw new IllegalArgumentException("keys can not be null!");
+
+        boolean outer = beginBatch();
+        int detached = 0;
+        try {
+            for (String key : keys)
+                if(detach(key)) detached++;
+        } finally {
+            endBatch(outer, detached > 0);
+        }
+        return detached;
+    }
+
+    private boolean pause(String key){
+        boolean wasWorking = isChildRunning(key) || isChildSleeping(key) || isChildParked(key);
+        runKeyedCommand(key, Command.PAUSE);
+        return wasWorking;
+    }
+
+    private void attach(String key, Runnable child){
+        if(child instanceof Task) ((Task) child).attachParent(key, this);
+        else if(child instanceof Group) ((Group) child).attachParent(key, this);
+        else attachChild(key, child);
+    }
+
+    private boolean detach(String key){
+        Runnable child = getChild(key);
+        if(child == null) return false;
+
+        if(child instanceof Task) ((Task) child).detachParent();
+        else if(child instanceof Group) ((Group) child).detachParent();
+        else detachChild(key);
+        return true;
+    }
+
+    /**
+     * starts a batch(batches can be nested, and only the outer one updates the parent)
+     * @return whether a batch was already running
+     */
+    private boolean beginBatch(){
+        boolean outer = batching;
+        batching = true;
+        return outer;
+    }
+
+    /**
+     * ends a batch and does the {@link Group#autoManage} update that was held back while it ran
+     * @param outer the value returned by beginBatch
+     * @param changed whether the batch changed anything
+     */
+    private void endBatch(boolean outer, boolean changed){
+        batching = outer;
+        if(outer || !changed || !autoManage || !isParentAttached()) return;
+
+        if(!activeRunnables.isEmpty()){
+            if(!isRunning()) runCommand(Command.QUE_START);
+        } else if(sleeping.isEmpty() && parked.isEmpty()){
+            runCommand(Command.QUE_PAUSE);
+        }
+    }
+
+
+    //----------POST----------//
+    /**
+     * runs an action on the thread running this group at the start of the next tick. This can be called from any thread without locking.
+     * If this group isn't running and {@link Group#autoManage} is on then the parent is asked to start it, so the action isn't stuck until something else starts this group.
+     * @param action the action
+     * @return false if the inbox is full, in which case the action is dropped and the caller should try again later
+     */
+    public boolean post(Runnable action){
+        if(action == null) throw new IllegalArgumentException("action can not be null!");
+        if(!getInbox().offer(action)) return false;
+
+        if(autoManage && isParentAttached() && !isRunning())
+            getParent().postCommand(getParentKey(), Command.START);
+        //read after the offer, so either this sees that the group parked itself or parkIfIdle sees the action
+        Group parent = parkedIn;
+        if(parent != null) parent.wakeChild(getParentKey());
+        return true;
+    }
+
+    /**
+     * runs a command on a child at the start of the next tick(see {@link Group#post(Runnable)})
+     * @param key the key of the child
+     * @param command the command
+     * @return false if the inbox is full
+     */
+    public boolean postCommand(String key, Command command){
+        if(key == null) throw new IllegalArgumentException("key can not be null!");
+        if(command == null) throw new IllegalArgumentException("command can not be null!");
+        return post(getKeyedAction(key, command));
+    }
+
+    /**
+     * attaches a child at the start of the next tick(see {@link Group#post(Runnable)})
+     * @param key the key of the child
+     * @param child the child
+     * @return false if the inbox is full
+     */
+    public boolean postAttach(String key, Runnable child){
+        if(key == null) throw new IllegalArgumentException("key can not be null!");
+        if(child == null) throw new IllegalArgumentException("child can not be null!");
+        return post(() -> attach(key, child));
+    }
+
+    /**
+     * detaches a child at the start of the next tick(see {@link Group#post(Runnable)})
+     * @param key the key of the child
+     * @return false if the inbox is full
+     */
+    public boolean postDetach(String key){
+        if(key == null) throw new IllegalArgumentException("key can not be null!");
+        return post(() -> detach(key));
+    }
+
+    private CommandInbox getInbox(){
+        CommandInbox current = inbox;
+        if(current != null) return current;
+
+        synchronized (this) {
+            if(inbox == null) inbox = new CommandInbox(inboxCapacity);
+            return inbox;
+        }
+    }
+
+    /**
+     * runs the posted actions(this is the first part of {@link Group#run()}). At most one inbox worth of actions is run, so threads that keep posting can't stall the tick.
+     */
+    protected void runPostedActions(){
+        CommandInbox current = inbox;
+        if(current == null) return;
+
+        for (int i = current.capacity(); i > 0; i--) {
+            Runnable action = current.poll();
+            if(action == null) return;
+            action.run();
+        }
+    }
+
 
     //----------IMPLEMENT Runnable----------//
+    /**
+     * runs one tick of this group and everything under it. This never waits for other threads, a group without a parent only marks its tree as ticked so snapshots taken on other threads at the same time are thrown away(see {@link Group#requestSnapshot()}).
+     */
     @Override
     public void run(){
-        while(!queuedGroupActions.isEmpty()) queuedGroupActions.removeFirst().run();
+        if(isParentAttached()){
+            tick();
+            return;
+        }
+
+        //only the thread running this group writes it, so the increments don't need to be atomic
+        tickSequence++;
+        try {
+            tick();
+        } finally {
+            tickSequence++;
+        }
+    }
+
+    private void tick(){
+        if(parkedIn != null) parkedIn = null;
+
+        //the group that owns the clock ticks it, so the whole tree reads the same time during this tick
+        if(clock != null) clock.tick();
+        else if(!isParentAttached()) getClock().tick();
+
+        GroupMetrics metrics = this.metrics;
+        if(metrics == null){
+            runPostedActions();
+            runQueuedGroupActions();
+            wakeChildren();
+            admissionPolicy.onTick(this);
+            runActiveRunnables();
+            parkIfIdle();
+            return;
+        }
+
+        long start = System.nanoTime();
+        runPostedActions();
+        runQueuedGroupActions();
+        metrics.recordQueueDrain(System.nanoTime() - start);
+        wakeChildren();
+        admissionPolicy.onTick(this);
+        runActiveRunnables();
+        metrics.recordTick(System.nanoTime() - start);
+        parkIfIdle();
+    }
 
-        activeRunnables.forEach((k,v) -> v.run());
+    /**
+     * runs and removes all the queued group actions in the order they were added (this is run right after the posted actions in {@link Group#run()}).
+     * The whole queue is swapped out and run in one pass, and anything queued while it runs is run in the next pass of the same call.
+     */
+    protected void runQueuedGroupActions(){
+        while(!queuedGroupActions.isEmpty() || !drainingGroupActions.isEmpty()){
+            //if an action threw last time then the rest of that pass is still in drainingGroupActions and runs first
+            if(drainingGroupActions.isEmpty()){
+                ArrayDeque<Runnable> actions = queuedGroupActions;
+                queuedGroupActions = drainingGroupActions;
+                drainingGroupActions = actions;
+            }
+
+            //not an iterator, because an action can drop a command that is still waiting in this pass
+            while(!drainingGroupActions.isEmpty()){
+                Runnable action = drainingGroupActions.pollFirst();
+                if(action instanceof KeyedAction && !((KeyedAction) action).take()){
+                    droppedGroupActions--;
+                    continue;
+                }
+                action.run();
+            }
+        }
+    }
+
+    /**
+     * starts every child that was woken up with {@link Group#wakeChild(String)} and every sleeping child whose wake up time has passed(only the children that are due are visited).
+     * A woken child starts in the slot it kept while it was parked, including a child group that parked itself because all of its children were parked.
+     */
+    protected void wakeChildren(){
+        for (String key = wakeRequests.poll(); key != null; key = wakeRequests.poll())
+            if(unpark(key)) restartWoken(key);
+
+        if(!sleeping.isEmpty()) sleepers.advance(getClock().nanoTime());
+    }
+
+    /**
+     * parks this group in its parent when every child that still has work is parked, so an idle subtree isn't run at all until something wakes one of its children(see {@link Group#wakeChild(String)})
+     */
+    private void parkIfIdle(){
+        if(!autoManage || parked.isEmpty() || !activeRunnables.isEmpty() || !sleeping.isEmpty()) return;
+        if(!queuedGroupActions.isEmpty() || !drainingGroupActions.isEmpty() || !isInboxEmpty() || !isParentAttached()) return;
+
+        Group parent = getParent();
+        parkedIn = parent;
+        //a wake up or posted action that came in before parkedIn was set wasn't passed to the parent, so this has to keep running to handle it
+        if(!wakeRequests.isEmpty() || !isInboxEmpty()){
+            parkedIn = null;
+            return;
+        }
+        parent.parkChild(getParentKey());
+    }
+
+    /**
+     * runs every active runnable once on the calling thread (this is the second part of {@link Group#run()})
+     */
+    protected void runActiveRunnables(){
+        ActiveRunnableRegistry.Snapshot snapshot = activeRunnables.snapshot();
+        if(metrics == null){
+            for (Runnable runnable : snapshot.runnables())
+                runnable.run();
+            return;
+        }
+
+        String[] keys = snapshot.keys();
+        Runnable[] runnables = snapshot.runnables();
+        for (int i = 0; i < keys.length; i++)
+            runChild(keys[i], runnables[i]);
+    }
+
+    /**
+     * runs one active runnable and records its run time if metrics are enabled(subclasses that change how the active runnables are run should use this)
+     * @param key the key of the runnable
+     * @param runnable the runnable
+     */
+    protected final void runChild(String key, Runnable runnable){
+        GroupMetrics metrics = this.metrics;
+        if(metrics == null){
+            runnable.run();
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            runnable.run();
+        } finally {
+            metrics.recordChild(key, runnable, System.nanoTime() - start);
+        }
+    }
+
+
+    //----------SNAPSHOT----------//
+    /**
+     * takes an immutable snapshot of this group and everything under it that can be read or rendered from any thread(see {@link SnapshotRenderer})
+     * @return the snapshot
+     * @apiNote this reads live state, so it should be called by the thread running this group. Other threads should use {@link Group#requestSnapshot()}.
+     */
+    public GroupSnapshot snapshot(){
+        if(!isParentAttached()) return snapshot(null, NodeStatus.NO_PARENT, null);
+
+        Group parent = getParent();
+        String key = getParentKey();
+        GroupMetrics parentMetrics = parent.metrics;
+        return snapshot(key, parent.getChildStatus(key), parentMetrics != null ? parentMetrics.getChildStats(key) : null);
+    }
+
+    /**
+     * takes a snapshot(see {@link Group#snapshot()}) without the tick loop ever waiting for the caller. This can be called from any thread.
+     * If the tree this group is in isn't being run right now then the snapshot is taken on the calling thread and kept only if no tick of the root group started while it was taken(it is tried again a few times).
+     * Otherwise it is taken at the start of the next tick of the root group, so it is still taken if this group is paused or parked and isn't run itself.
+     * @return a future that is completed with the snapshot(it fails if the inbox of the root group is full, see {@link Group#post(Runnable)})
+     */
+    public CompletableFuture<GroupSnapshot> requestSnapshot(){
+        CompletableFuture<GroupSnapshot> future = new CompletableFuture<>();
+        Group root = this;
+        while(root.isParentAttached()) root = root.getParent();
+
+        for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS; attempt++) {
+            int sequence = root.tickSequence;
+            if((sequence & 1) != 0) break;
+
+            GroupSnapshot snapshot = null;
+            Throwable failure = null;
+            try {
+                snapshot = snapshot();
+            } catch (Throwable e) {
+                //a tick that started while reading can make the read fail, which is only a real failure if no tick started
+                failure = e;
+            }
+            if(root.tickSequence != sequence) continue;
+
+            if(failure != null) future.completeExceptionally(failure);
+            else future.complete(snapshot);
+            return future;
+        }
+
+        //this doesn't use post, because looking at a group shouldn't start it
+        if(!root.getInbox().offer(() -> future.complete(snapshot())))
+            future.completeExceptionally(new RejectedExecutionException("the inbox of " + root.name + " is full"));
+        return future;
+    }
+
+    /**
+     * gets the status of a child
+     * @param key the key of the child
+     * @return the status or null if there is no child with the key
+     */
+    public NodeStatus getChildStatus(String key){
+        Runnable child = getChild(key);
+        return child != null ? getChildStatus(key, child) : null;
+    }
+
+    private NodeStatus getChildStatus(String key, Runnable child){
+        //tasks and groups cache whether they are running, so only plain runnables need a lookup
+        boolean running;
+        if(child instanceof Task) running = ((Task) child).isRunning();
+        else if(child instanceof Group) running = ((Group) child).isRunning();
+        else running = activeRunnables.containsKey(key);
+
+        if(running) return NodeStatus.RUNNING;
+        if(!sleeping.isEmpty() && sleeping.containsKey(key)) return NodeStatus.SLEEPING;
+        if(!parked.isEmpty() && parked.contains(key)) return NodeStatus.PARKED;
+        if(isChildWaiting(key)) return NodeStatus.WAITING;
+        return NodeStatus.NOT_RUNNING;
+    }
+
+    /**
+     * takes a snapshot of this group with the state its parent sees
+     * @param key the key of this group in the parent
+     * @param status the status of this group in the parent
+     * @param runStats the run time of this group measured by the parent or null
+     * @return the snapshot
+     */
+    protected GroupSnapshot snapshot(String key, NodeStatus status, RunStats runStats){
+        Map<String, Runnable> table = getChildrenAndKeys();
+        ArrayList<NodeSnapshot> children = new ArrayList<>(table.size());
+        GroupMetrics metrics = this.metrics;
+
+        for (Map.Entry<String, Runnable> entry : table.entrySet()) {
+            String childKey = entry.getKey();
+            Runnable child = entry.getValue();
+            NodeStatus childStatus = getChildStatus(childKey, child);
+            RunStats childStats = metrics != null ? metrics.getChildStats(childKey) : null;
+
+            if(child instanceof Group)
+                children.add(((Group) child).snapshot(childKey, childStatus, childStats));
+            else if(child instanceof Task)
+                children.add(((Task) child).snapshot(childKey, childStatus, childStats));
+            else
+                children.add(new RunnableSnapshot(childKey, String.valueOf(child), child.getClass().getSimpleName(), childStatus, childStats));
+        }
+
+        return new GroupSnapshot(key, name, getClass().getSimpleName(), status, runStats,
+                activeRunnables.size(), admissionPolicy.getWaitingCount(), sleeping.size(), parked.size(), queuedGroupActions.size() + drainingGroupActions.size() - droppedGroupActions,
+                metrics != null ? metrics.getTickStats() : null, metrics != null ? metrics.getQueueDrainStats() : null, children);
     }
 
 
@@ -267,41 +1463,54 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
      * @return 1
      */
     protected StringBuilder getBaseInfo(String tab, String start){
-        StringBuilder str = new StringBuilder(start);
-        str.append(getName() + " Info:");
-        str.append("\n");
-        str.append(start + tab + "Type: " + getClass().getSimpleName());
-        str.append("\n");
-        str.append(start + tab + "Status: ");
+        return appendBaseInfo(new StringBuilder(), tab, start);
+    }
+
+    /**
+     * adds the name, type and status of this group to str(this is what {@link Group#getBaseInfo(String, String)} returns)
+     * @param str where the info is added
+     * @param tab the indent of one level
+     * @param start the indent of this group
+     * @return str
+     */
+    protected StringBuilder appendBaseInfo(StringBuilder str, String tab, String start){
+        str.append(start).append(getName()).append(" Info:\n");
+        str.append(start).append(tab).append("Type: ").append(getClass().getSimpleName()).append('\n');
+        str.append(start).append(tab).append("Status: ");
         if(!isParentAttached())
             str.append("No Parent");
         else if (isRunning())
             str.append("Running");
+        else if (getParent().isChildParked(getParentKey()))
+            str.append("Parked");
         else
             str.append("Not Running");
 
         return str;
     }
 
-    private String getHashtableInfo(Map<String, Runnable> table, String tab, int startTabs, boolean extend, boolean getRunningInfo, boolean getAllInfo){
-        StringBuilder str = new StringBuilder();
+    private void appendChildrenInfo(StringBuilder str, Map<String, Runnable> table, String tab, int startTabs, boolean extend, boolean getRunningInfo){
         String start = tab.repeat(startTabs);
+        String childStart = start + tab + tab;
+        GroupMetrics metrics = this.metrics;
 
         for (Map.Entry<String, Runnable> entry: table.entrySet()) {
-            str.append("\n");
-            str.append(start + tab + "Key: " + entry.getKey());
-            str.append("\n");
+            str.append('\n').append(start).append(tab).append("Key: ").append(entry.getKey()).append('\n');
+
+            if(metrics != null)
+                str.append(start).append(tab).append("Run Time: ").append(metrics.getChildStats(entry.getKey())).append('\n');
 
+            //children that override getInfo are asked for it, the rest are written straight into str
             Runnable r = entry.getValue();
-            if(r instanceof Task)
-                str.append(((Task) r).getInfo(tab, startTabs + 2, extend));
-            else if(r instanceof Group)
-                str.append(((Group) r).getInfo(tab, startTabs + 2, extend, getRunningInfo, true));
-            else
-                str.append(start + tab.repeat(2) + r.toString());
+            if(r instanceof Task){
+                if(CUSTOM_INFO.get(r.getClass())) str.append(((Task) r).getInfo(tab, startTabs + 2, extend));
+                else ((Task) r).appendInfo(str, tab, childStart, extend);
+            } else if(r instanceof Group){
+                if(CUSTOM_INFO.get(r.getClass())) str.append(((Group) r).getInfo(tab, startTabs + 2, extend, getRunningInfo, true));
+                else ((Group) r).appendInfo(str, tab, startTabs + 2, extend, getRunningInfo, true);
+            } else
+                str.append(start).append(tab).append(tab).append(r);
         }
-
-        return str.toString();
     }
 
     /**
@@ -314,21 +1523,42 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
      * @return 1
      */
     public String getInfo(String tab, int startTabs, boolean extend, boolean getRunningInfo, boolean getAllInfo){
-        String start = tab.repeat(startTabs);
-        StringBuilder str = getBaseInfo(tab, start);
+        return appendInfo(new StringBuilder(), tab, startTabs, extend, getRunningInfo, getAllInfo).toString();
+    }
 
+    /**
+     * adds the info of this group and its children to str(see {@link Group#getInfo(String, int, boolean, boolean, boolean)}), so the whole tree is written into one builder
+     * @param str where the info is added
+     * @param tab the indent of one level
+     * @param startTabs the number of indents before this group
+     * @param extend whether to add the settings of tasks
+     * @param getRunningInfo whether to add the info of the active children
+     * @param getAllInfo whether to add the info of all children
+     * @return str
+     */
+    protected StringBuilder appendInfo(StringBuilder str, String tab, int startTabs, boolean extend, boolean getRunningInfo, boolean getAllInfo){
+        String start = tab.repeat(startTabs);
+        appendBaseInfo(str, tab, start);
 
-        str.append("\n");
-        str.append(start + tab + "All: " + getChildrenAndKeys().size());
+        str.append('\n').append(start).append(tab).append("All: ").append(getChildrenAndKeys().size());
         if(getAllInfo)
-            str.append(getHashtableInfo(getChildrenAndKeys(), tab, startTabs + 1, extend, getRunningInfo, true));
+            appendChildrenInfo(str, getChildrenAndKeys(), tab, startTabs + 1, extend, getRunningInfo);
 
-        str.append("\n");
-        str.append(start + tab + "Active: " + activeRunnables.size());
+        str.append('\n').append(start).append(tab).append("Active: ").append(activeRunnables.size());
         if(getRunningInfo)
-            str.append(getHashtableInfo(activeRunnables, tab, startTabs + 1, extend, true, getAllInfo));
+            appendChildrenInfo(str, activeRunnables, tab, startTabs + 1, extend, true);
+
+        str.append('\n').append(start).append(tab).append("Waiting: ").append(admissionPolicy.getWaitingCount());
+        str.append('\n').append(start).append(tab).append("Sleeping: ").append(sleeping.size());
+        str.append('\n').append(start).append(tab).append("Parked: ").append(parked.size());
 
-        return str.toString();
+        GroupMetrics metrics = this.metrics;
+        if(metrics != null){
+            str.append('\n').append(start).append(tab).append("Tick Time: ").append(metrics.getTickStats());
+            str.append('\n').append(start).append(tab).append("Queue Drain Time: ").append(metrics.getQueueDrainStats());
+        }
+
+        return str;
     }
 
     @Override
@@ -337,6 +1567,111 @@ public class Group extends KeyedBidirectionalStructure<String, Group, Runnable>
     }
 
     //----------Other----------//
+    private static final Command[] COMMANDS = Command.values();
+    /**
+     * the number of times {@link Group#requestSnapshot()} tries to take a snapshot on the calling thread before it asks the root group to take it
+     */
+    private static final int SNAPSHOT_ATTEMPTS = 3;
+    /**
+     * the number of handles in one chunk of {@link Group#activeBits}(a multiple of 64)
+     */
+    private static final int HANDLES_PER_CHUNK = 1024;
+
+    /**
+     * whether a {@link Task} or {@link Group} class overrides getInfo, which is still the method to override to change the info of a child
+     */
+    private static final ClassValue<Boolean> CUSTOM_INFO = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                if(Task.class.isAssignableFrom(type))
+                    return type.getMethod("getInfo", String.class, int.class, boolean.class).getDeclaringClass() != Task.class;
+                return type.getMethod("getInfo", String.class, int.class, boolean.class, boolean.class, boolean.class).getDeclaringClass() != Group.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    /**
+     * The handle of a child and the actions that run commands on it
+     */
+    private final class ChildSlot {
+        private final String key;
+        private final int handle;
+        private final KeyedAction[] actions = new KeyedAction[COMMANDS.length];
+
+        private ChildSlot(String key, int handle) {
+            this.key = key;
+            this.handle = handle;
+        }
+
+        private KeyedAction getAction(Command command){
+            KeyedAction action = actions[command.ordinal()];
+            if(action == null){
+                action = new KeyedAction(key, command, this);
+                actions[command.ordinal()] = action;
+            }
+            return action;
+        }
+    }
+
+    /**
+     * A preallocated action that runs a command on a child of this group
+     */
+    private final class KeyedAction implements Runnable {
+        private final String key;
+        private final Command command;
+        /**
+         * the slot this action is cached in(null if the child didn't exist)
+         */
+        private final ChildSlot slot;
+        /**
+         * whether this action is waiting to run in {@link Group#queuedGroupActions} or {@link Group#drainingGroupActions}
+         */
+        private boolean queued;
+        /**
+         * the number of entries of this action that were dropped by the opposite command(they are always in front of the entry that runs)
+         */
+        private int dropped;
+
+        private KeyedAction(String key, Command command, ChildSlot slot) {
+            this.key = key;
+            this.command = command;
+            this.slot = slot;
+        }
+
+        /**
+         * gets the action that undoes this one
+         * @return the cached action with the opposite command or null if there is none
+         */
+        private KeyedAction getOpposite(){
+            if(slot == null) return null;
+            switch (command){
+                case START: return slot.getAction(Command.PAUSE);
+                case PAUSE: return slot.getAction(Command.START);
+                default: return null;
+            }
+        }
+
+        /**
+         * takes the entry of this action that was just removed from the queue
+         * @return true if the entry should run or false if it was dropped
+         */
+        private boolean take(){
+            if(dropped > 0){
+                dropped--;
+                return false;
+            }
+            queued = false;
+            return true;
+        }
+
+        @Override
+        public void run() {
+            runKeyedCommand(key, command);
+        }
+    }
 
     /**
      * 1
@@ -0,0 +1,22 @@
+package om.self.task.core;
+
+/**
+ * A channel of ints that handlers get as a {@link java.util.function.IntConsumer}, so the values are never boxed(see {@link EventManager#attachToChannel(IntEventChannel, String, java.util.function.IntConsumer)} and {@link EventManager#publish(IntEventChannel, int)}).
+ */
+public final class IntEventChannel extends Channel {
+    /**
+     * Constructor that sets the name of this channel
+     * @param name the name of this channel(only used for info)
+     */
+    public IntEventChannel(String name) {
+        super(name);
+    }
+
+    /**
+     * Constructor that uses the name of an event as the name of this channel
+     * @param event the event(see {@link EventManager.CommonTrigger})
+     */
+    public IntEventChannel(Enum<?> event) {
+        super(event.name());
+    }
+}
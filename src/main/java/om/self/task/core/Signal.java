@@ -0,0 +1,115 @@
+package om.self.task.core;
+
+import java.util.ArrayList;
+
+/**
+ * A condition that tasks can wait on without being run every tick.
+ * A task waiting on a signal(see {@link TaskEx#addStep(Signal)} and {@link TaskEx#addStep(Signal, java.util.function.BooleanSupplier)}) is parked in its group, and every time {@link Signal#fire()} is called all the waiting tasks are woken up at the start of the next tick of their group to check again.
+ * Every fire increases the generation of the signal, so waiters can tell if it fired since they last looked.
+ * @apiNote a signal can be fired from any thread
+ */
+public class Signal {
+    private final String name;
+    private final ArrayList<Waiter> waiters = new ArrayList<>();
+    private volatile long generation = 0;
+
+
+    //----------CONSTRUCTOR----------//
+    /**
+     * Constructor that sets the name of this signal
+     * @param name the name of this signal(only used for info)
+     */
+    public Signal(String name) {
+        this.name = name;
+    }
+
+
+    //----------GETTER and SETTER----------//
+    /**
+     * gets the name of this signal
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * gets the number of times this signal was fired
+     * @return the generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * gets the number of waiters that will be woken up by the next fire
+     * @return the number of waiters
+     */
+    public synchronized int getWaiterCount() {
+        return waiters.size();
+    }
+
+
+    //----------FIRE----------//
+    /**
+     * increases the generation and wakes up every waiter. The waiters are removed, so they have to register again if they still need to wait.
+     */
+    public void fire() {
+        synchronized (this) {
+            generation++;
+            for (Waiter waiter : waiters) {
+                waiter.registered = false;
+                //waking only queues the wake up, so this can't call back into the signal
+                waiter.onSignal();
+            }
+            waiters.clear();
+        }
+    }
+
+
+    //----------WAITERS----------//
+    /**
+     * registers a waiter to be woken up by the next fire(if it is already registered then nothing changes)
+     * @param waiter the waiter
+     * @return the generation at the time the waiter was registered
+     */
+    synchronized long register(Waiter waiter) {
+        if(!waiter.registered){
+            waiter.registered = true;
+            waiters.add(waiter);
+        }
+        return generation;
+    }
+
+    /**
+     * removes a waiter that no longer needs to be woken up
+     * @param waiter the waiter
+     */
+    synchronized void unregister(Waiter waiter) {
+        if(!waiter.registered) return;
+        waiter.registered = false;
+        waiters.remove(waiter);
+    }
+
+    @Override
+    public String toString() {
+        return "Signal " + name + "(generation: " + generation + ", waiters: " + getWaiterCount() + ")";
+    }
+
+
+    //----------Other----------//
+    /**
+     * Something that is woken up when a {@link Signal} fires
+     */
+    abstract static class Waiter {
+        /**
+         * whether this is in the waiters of a signal(guarded by that signal)
+         */
+        private boolean registered = false;
+
+        /**
+         * called by {@link Signal#fire()} while the signal is locked, so this must not block
+         */
+        abstract void onSignal();
+    }
+}
@@ -0,0 +1,107 @@
+package om.self.task.core;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * The step program of a {@link TaskEx} stored as one ring buffer of {@link Step} records.
+ * Getting a step, appending a step and removing the first or last step are O(1) (appending is amortised), and inserting or removing in the middle only shifts the shorter side of the buffer.
+ */
+final class StepBuffer {
+    private static final Step[] EMPTY = new Step[0];
+
+    private Step[] buffer = EMPTY;
+    private int head = 0;
+    private int size = 0;
+
+
+    //----------ACCESS----------//
+    int size(){
+        return size;
+    }
+
+    boolean isEmpty(){
+        return size == 0;
+    }
+
+    Step get(int index){
+        if(index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return buffer[(head + index) & (buffer.length - 1)];
+    }
+
+
+    //----------ADD/REMOVE----------//
+    void add(Step step){
+        ensureCapacity();
+        buffer[(head + size) & (buffer.length - 1)] = step;
+        size++;
+    }
+
+    void add(int index, Step step){
+        if(index < 0 || index > size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        if(index == size){
+            add(step);
+            return;
+        }
+
+        ensureCapacity();
+        int mask = buffer.length - 1;
+        if(index < size / 2){
+            //move the steps before index one to the left
+            head = (head - 1) & mask;
+            for (int i = 0; i < index; i++)
+                buffer[(head + i) & mask] = buffer[(head + i + 1) & mask];
+        } else {
+            //move the steps from index one to the right
+            for (int i = size; i > index; i--)
+                buffer[(head + i) & mask] = buffer[(head + i - 1) & mask];
+        }
+        buffer[(head + index) & mask] = step;
+        size++;
+    }
+
+    Step remove(int index){
+        Step removed = get(index);
+        int mask = buffer.length - 1;
+
+        if(index < size / 2){
+            //move the steps before index one to the right
+            for (int i = index; i > 0; i--)
+                buffer[(head + i) & mask] = buffer[(head + i - 1) & mask];
+            buffer[head] = null;
+            head = (head + 1) & mask;
+        } else {
+            //move the steps after index one to the left
+            for (int i = index; i < size - 1; i++)
+                buffer[(head + i) & mask] = buffer[(head + i + 1) & mask];
+            buffer[(head + size - 1) & mask] = null;
+        }
+        size--;
+        return removed;
+    }
+
+    void clear(){
+        buffer = EMPTY;
+        head = 0;
+        size = 0;
+    }
+
+    private void ensureCapacity(){
+        if(size < buffer.length) return;
+
+        //the capacity is kept at a power of 2 so indexes can be wrapped with a mask
+        Step[] grown = new Step[Math.max(buffer.length << 1, 8)];
+        for (int i = 0; i < size; i++)
+            grown[i] = buffer[(head + i) & (buffer.length - 1)];
+        buffer = grown;
+        head = 0;
+    }
+
+
+    //----------Other----------//
+    /**
+     * One step of a {@link TaskEx}
+     * @param action the action that is run every time the task is run while this is the current step
+     * @param end the condition that moves the task to the next step once it is true
+     */
+    record Step(Runnable action, BooleanSupplier end) {}
+}
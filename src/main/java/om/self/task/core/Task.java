@@ -2,8 +2,14 @@ package om.self.task.core;
 
 import om.self.structure.NamedStructure;
 import om.self.structure.parent.KeyedParentStructureImpl;
+import om.self.task.metrics.GroupMetrics;
+import om.self.task.metrics.RunStats;
+import om.self.task.snapshot.NodeStatus;
+import om.self.task.snapshot.TaskSnapshot;
 
 import java.util.LinkedList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * A simple task that will execute a Lambda Function with no input or output.
@@ -32,6 +38,26 @@ public class Task extends KeyedParentStructureImpl<String, Group> implements Run
 	 */
 	public boolean autoPause = false;
 
+	/**
+	 * whether this task is in the active runnables of its parent(kept up to date by the parent, so {@link Task#isRunning()} doesn't have to look it up)
+	 */
+	private volatile boolean running = false;
+
+	/**
+	 * the handle of this task in its parent(-1 until it is looked up, see {@link Group#getHandle(String)})
+	 */
+	private int parentHandle = -1;
+
+	/**
+	 * the future returned by {@link Task#getCompletion()}(only made once something asks for it)
+	 */
+	private volatile CompletableFuture<Void> completion;
+
+	/**
+	 * whether this task completed since it was last started, so the pause that follows finishing doesn't cancel the next completion
+	 */
+	private boolean completed = false;
+
 	//----------CONSTRUCTORS----------//
 	/**
 	 * Constructor that sets the name of this task and attaches it to a parent Group with the key parentKey
@@ -94,6 +120,18 @@ public class Task extends KeyedParentStructureImpl<String, Group> implements Run
 	public void setRunnable(Runnable runnable){
 		if(runnable == null) return;
 
+		//whatever waited for the old runnable won't see it finish anymore
+		if(this.runnable != null && this.runnable != runnable) cancelCompletion();
+		replaceRunnable(runnable);
+	}
+
+	/**
+	 * sets the runnable action without cancelling the completion(used by {@link TaskEx} to move between steps)
+	 * @param runnable the runnable action
+	 */
+	void replaceRunnable(Runnable runnable){
+		if(runnable == null) return;
+
 		this.runnable = runnable;
 		if(isParentAttached() && !isRunning() && autoStart)
 			runCommand(Group.Command.START);
@@ -108,13 +146,106 @@ public class Task extends KeyedParentStructureImpl<String, Group> implements Run
 	}
 
 
+	/**
+	 * gets the clock time based tasks should use
+	 * @return the clock of the parent group or {@link TickClock#LIVE} if there is no parent
+	 */
+	public TickClock getClock(){
+		return isParentAttached() ? getParent().getClock() : TickClock.LIVE;
+	}
+
+	/**
+	 * gets the executor blocking work of this task should run on
+	 * @return the step executor of the parent group or {@link Group#VIRTUAL_THREADS} if there is no parent
+	 */
+	public Executor getStepExecutor(){
+		return isParentAttached() ? getParent().getStepExecutor() : Group.VIRTUAL_THREADS;
+	}
+
+
+	/**
+	 * gets a future that is completed the next time this task is done. For a task with {@link Task#autoPause} that is after the next time the runnable is run, and for a {@link TaskEx} it is when the last step ends.
+	 * Once completed, the next call returns a new future for the time after that.
+	 * If this task is paused before it is done, detached, or its runnable is replaced then the future is cancelled, so nothing waits for a completion that won't come.
+	 * @return the completion future
+	 */
+	public CompletableFuture<Void> getCompletion(){
+		CompletableFuture<Void> future = completion;
+		if(future != null) return future;
+
+		synchronized (this) {
+			if(completion == null) completion = new CompletableFuture<>();
+			return completion;
+		}
+	}
+
+	/**
+	 * completes the future from {@link Task#getCompletion()} if anything asked for it(this is free when nothing is waiting)
+	 */
+	protected void complete(){
+		completed = true;
+		CompletableFuture<Void> future = takeCompletion();
+		if(future != null) future.complete(null);
+	}
+
+	/**
+	 * cancels the future from {@link Task#getCompletion()} if anything asked for it(called when this task is detached or its runnable is replaced)
+	 */
+	void cancelCompletion(){
+		CompletableFuture<Void> future = takeCompletion();
+		if(future != null) future.cancel(false);
+	}
+
+	/**
+	 * called by the parent group when this task is paused, which cancels the completion unless this task just completed
+	 */
+	void onPaused(){
+		if(!completed) cancelCompletion();
+	}
+
+	private CompletableFuture<Void> takeCompletion(){
+		if(completion == null) return null;
+
+		synchronized (this) {
+			CompletableFuture<Void> future = completion;
+			completion = null;
+			return future;
+		}
+	}
+
+
 	//----------CHECKS----------//
 	/**
 	 * 1
 	 * @return 1
 	 */
 	public boolean isRunning(){
-		return isParentAttached() && getParent().isChildRunning(getParentKey());
+		return running;
+	}
+
+	/**
+	 * sets the cached running state(only called by the parent group when this is added to or removed from its active runnables)
+	 * @param running whether this task is running
+	 */
+	void setRunning(boolean running){
+		if(running && !this.running) completed = false;
+		this.running = running;
+	}
+
+	/**
+	 * checks if this task is sleeping in its parent group(see {@link Task#sleepUntil(long)})
+	 * @return whether this task is sleeping
+	 */
+	public boolean isSleeping(){
+		return isParentAttached() && getParent().isChildSleeping(getParentKey());
+	}
+
+	/**
+	 * checks if this task is parked in its parent group(see {@link Task#park()})
+	 * @return whether this task is parked
+	 */
+	public boolean isParked(){
+		return isParentAttached() && getParent().isChildParked(getParentKey());
 	}
 
 	/**
@@ -122,7 +253,7 @@ public class Task extends KeyedParentStructureImpl<String, Group> implements Run
 	 * @return 1
 	 */
 	public boolean isDone(){
-		return !isRunning();
+		return !isRunning() && !isSleeping() && !isParked();
 	}
 
 
@@ -157,8 +288,10 @@ public class Task extends KeyedParentStructureImpl<String, Group> implements Run
 	@Override
 	public void run(){
 		runnable.run();
-		if(isRunning() && autoPause)
-			runCommand(Group.Command.QUE_PAUSE);
+		if(autoPause) {
+			if(isRunning()) runCommand(Group.Command.QUE_PAUSE);
+			complete();
+		}
 	}
 
 
@@ -175,6 +308,61 @@ public class Task extends KeyedParentStructureImpl<String, Group> implements Run
 		return false;
 	}
 
+	/**
+	 * runs a command on this task without any arguments(this avoids allocating the varargs array on the hot path)
+	 * @param command the command to run
+	 * @return always false
+	 */
+	public boolean runCommand(Group.Command command) {
+		if(!isParentAttached()) return false;
+
+		Group parent = getParent();
+		if(parentHandle < 0) parentHandle = parent.getHandle(getParentKey());
+		if(parentHandle >= 0) parent.runHandleCommand(parentHandle, command);
+		else parent.runKeyedCommand(getParentKey(), command);
+		return false;
+	}
+
+	/**
+	 * gets the handle of this task in its parent if it was already looked up
+	 * @return the handle or -1
+	 */
+	int getParentHandle(){
+		return parentHandle;
+	}
+
+	/**
+	 * forgets the handle of this task(called by the parent group when this is detached, because the handle can be given to another child)
+	 */
+	void clearParentHandle(){
+		parentHandle = -1;
+	}
+
+
+	/**
+	 * stops running this task until the clock of the parent group reaches wakeNanos(see {@link Group#sleepChild(String, long)})
+	 * @param wakeNanos the time from {@link Task#getClock()} to start running again at
+	 * @return true if this task is now sleeping, false if there is no parent or the time already passed
+	 */
+	public boolean sleepUntil(long wakeNanos){
+		return isParentAttached() && getParent().sleepChild(getParentKey(), wakeNanos);
+	}
+
+	/**
+	 * stops running this task until {@link Task#wake()} is called(see {@link Group#parkChild(String)})
+	 * @return true if this task is now parked, false if there is no parent
+	 */
+	public boolean park(){
+		return isParentAttached() && getParent().parkChild(getParentKey());
+	}
+
+	/**
+	 * starts running this task again at the start of the next tick if it is parked or sleeping(this can be called from any thread)
+	 */
+	public void wake(){
+		if(isParentAttached()) getParent().wakeChild(getParentKey());
+	}
+
 
 	//----------INFO----------//
 
@@ -185,16 +373,28 @@ public class Task extends KeyedParentStructureImpl<String, Group> implements Run
 	 * @return 1
 	 */
 	protected StringBuilder getBaseInfo(String tab, String start){
-		StringBuilder str = new StringBuilder(start);
-		str.append(getName() + " Info:");
-		str.append("\n");
-		str.append(start + tab + "Type: " + getClass().getSimpleName());
-		str.append("\n");
-		str.append(start + tab + "Status: ");
+		return appendBaseInfo(new StringBuilder(), tab, start);
+	}
+
+	/**
+	 * adds the name, type and status of this task to str(this is what {@link Task#getBaseInfo(String, String)} returns)
+	 * @param str where the info is added
+	 * @param tab the indent of one level
+	 * @param start the indent of this task
+	 * @return str
+	 */
+	protected StringBuilder appendBaseInfo(StringBuilder str, String tab, String start){
+		str.append(start).append(getName()).append(" Info:\n");
+		str.append(start).append(tab).append("Type: ").append(getClass().getSimpleName()).append('\n');
+		str.append(start).append(tab).append("Status: ");
 		if(!isParentAttached())
 			str.append("No Parent");
 		else if (isRunning())
 			str.append("Running");
+		else if (isSleeping())
+			str.append("Sleeping");
+		else if (isParked())
+			str.append("Parked");
 		else
 			str.append("Not Running");
 		return str;
@@ -208,15 +408,50 @@ public class Task extends KeyedParentStructureImpl<String, Group> implements Run
 	 * @return 1
 	 */
 	public String getInfo(String tab, int startTabs, boolean extend){
-		String start = tab.repeat(startTabs);
-		StringBuilder str = getBaseInfo(tab, start);
+		return appendInfo(new StringBuilder(), tab, tab.repeat(startTabs), extend).toString();
+	}
+
+	/**
+	 * adds the info of this task to str(see {@link Task#getInfo(String, int, boolean)}), so a whole tree can be written into one builder
+	 * @param str where the info is added
+	 * @param tab the indent of one level
+	 * @param start the indent of this task
+	 * @param extend whether to add the settings of this task
+	 * @return str
+	 */
+	protected StringBuilder appendInfo(StringBuilder str, String tab, String start, boolean extend){
+		appendBaseInfo(str, tab, start);
 		if(extend){
-			str.append("\n");
-			str.append(start + tab +  "Auto Start: " + autoStart);
-			str.append("\n");
-			str.append(start + tab +  "Auto Pause: " + autoPause);
+			str.append('\n').append(start).append(tab).append("Auto Start: ").append(autoStart);
+			str.append('\n').append(start).append(tab).append("Auto Pause: ").append(autoPause);
 		}
-		return str.toString();
+		return str;
+	}
+
+
+	//----------SNAPSHOT----------//
+	/**
+	 * takes an immutable snapshot of this task that can be read or rendered from any thread(see {@link om.self.task.snapshot.SnapshotRenderer})
+	 * @return the snapshot
+	 * @apiNote this reads live state, so it should be called by the thread running the parent group(see {@link Group#requestSnapshot()})
+	 */
+	public TaskSnapshot snapshot(){
+		if(!isParentAttached()) return snapshot(null, NodeStatus.NO_PARENT, null);
+
+		Group parent = getParent();
+		GroupMetrics metrics = parent.getMetrics();
+		return snapshot(getParentKey(), parent.getChildStatus(getParentKey()), metrics != null ? metrics.getChildStats(getParentKey()) : null);
+	}
+
+	/**
+	 * takes a snapshot of this task with the state its parent sees
+	 * @param key the key of this task in the parent
+	 * @param status the status of this task in the parent
+	 * @param runStats the run time of this task measured by the parent or null
+	 * @return the snapshot
+	 */
+	protected TaskSnapshot snapshot(String key, NodeStatus status, RunStats runStats){
+		return new TaskSnapshot(key, name, getClass().getSimpleName(), status, runStats, autoStart, autoPause, -1, 0, isDone());
 	}
 
 	@Override
@@ -1,18 +1,26 @@
 package om.self.task.core;
 
-import java.util.LinkedList;
+import om.self.task.metrics.RunStats;
+import om.self.task.snapshot.NodeStatus;
+import om.self.task.snapshot.TaskSnapshot;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
 /**
  * 1
  */
 public class TaskEx extends Task {
-    private Supplier<Boolean> end;
-    private LinkedList<Runnable> steps = new LinkedList<>();
-    private LinkedList<Supplier<Boolean>> ends = new LinkedList<>();
+    private BooleanSupplier end;
+    private final StepBuffer steps = new StepBuffer();
 
     private int currentStep = 0;
     private boolean done = false;
+    private long stepAdvances = 0;
 
     /**
      * 1
@@ -73,18 +81,30 @@ public class TaskEx extends Task {
      * @param curr 1
      */
     public void setCurrentStep(int curr) {
+        stepAdvances++;
         //auto pause/reset
         if (curr >= steps.size()) {
             done = true;
+            complete();
             if(autoPause && isParentAttached()) runCommand(Group.Command.QUE_PAUSE);
             if(autoReset && curr != 0) reset();
             return;
         }
-        super.setRunnable(steps.get(curr));
-        end = ends.get(curr);
+        StepBuffer.Step step = steps.get(curr);
+        replaceRunnable(step.action());
+        end = step.end();
         currentStep = curr;
     }
 
+    /**
+     * gets the number of times this task moved to a step(including finishing and resetting)
+     *
+     * @return the number of step advances
+     */
+    public long getStepAdvances() {
+        return stepAdvances;
+    }
+
     /**
      * 1
      *
@@ -102,11 +122,10 @@ public class TaskEx extends Task {
      * @param step 1
      * @param end  1
      */
-    public void addStep(Runnable step, Supplier<Boolean> end) {
+    public void addStep(Runnable step, BooleanSupplier end) {
         if (step == null || end == null) return;
 
-        steps.add(step);
-        ends.add(end);
+        steps.add(new StepBuffer.Step(step, end));
 
         if(steps.size() == 1) {
             onEmptyAddStep();
@@ -118,7 +137,7 @@ public class TaskEx extends Task {
      *
      * @param end 1
      */
-    public void addStep(Supplier<Boolean> end) {
+    public void addStep(BooleanSupplier end) {
         addStep(() -> {
         }, end);
     }
@@ -141,6 +160,84 @@ public class TaskEx extends Task {
         addStep(step, step::isDone);
     }
 
+    /**
+     * adds a step that runs a blocking action(like file or network IO) on the step executor of the parent group(see {@link Task#getStepExecutor()}) instead of the thread running the group.
+     * This task is parked(see {@link Task#park()}) while the action runs, so any number of blocking steps can be in flight without costing anything per tick, and the step ends on the tick after the action returns.
+     * If the action throws then the exception is thrown from {@link TaskEx#run()} wrapped in a {@link CompletionException} when the step ends.
+     *
+     * @param step the blocking action
+     */
+    public void addBlockingStep(Runnable step) {
+        if (step == null) return;
+
+        BlockingStep blockingStep = new BlockingStep(step);
+        addStep(blockingStep, blockingStep::isFinished);
+    }
+
+    /**
+     * adds a step that ends once a stage completes. This task is parked(see {@link Task#park()}) until then, so nothing is polled while it waits, and the step ends on the tick after the stage completes.
+     * If the stage completes exceptionally then the exception is thrown from {@link TaskEx#run()} wrapped in a {@link CompletionException}.
+     * The same stage is used every time the step runs, so after it completed once the step ends right away(use {@link TaskEx#addAsyncStep(Supplier)} to get a new stage every time).
+     *
+     * @param end the stage to wait for
+     */
+    public void addStep(CompletionStage<?> end) {
+        if (end == null) return;
+        addAsyncStep(() -> end);
+    }
+
+    /**
+     * adds a step that gets a stage every time the step starts and ends once that stage completes(see {@link TaskEx#addStep(CompletionStage)}).
+     * For example {@code addAsyncStep(otherTask::getCompletion)} waits for another task to finish without polling it.
+     *
+     * @param end gets the stage to wait for
+     */
+    public void addAsyncStep(Supplier<? extends CompletionStage<?>> end) {
+        if (end == null) return;
+
+        StageStep stageStep = new StageStep(end);
+        addStep(stageStep, stageStep::isFinished);
+    }
+
+    /**
+     * adds a step that subscribes to a publisher every time the step starts and ends once the publisher sends an item(the subscription is then canceled), completes or fails.
+     * This task is parked(see {@link Task#park()}) until then, and a failure is thrown from {@link TaskEx#run()} wrapped in a {@link CompletionException}.
+     *
+     * @param end the publisher to wait for
+     */
+    public void addStep(Flow.Publisher<?> end) {
+        if (end == null) return;
+
+        PublisherStep publisherStep = new PublisherStep(end);
+        addStep(publisherStep, publisherStep::isFinished);
+    }
+
+    /**
+     * adds a step that waits for the next time a signal is fired. This task is parked(see {@link Task#park()}) until then, so it isn't run while it waits.
+     *
+     * @param signal the signal to wait for
+     */
+    public void addStep(Signal signal) {
+        if (signal == null) return;
+
+        SignalStep signalStep = new SignalStep(signal, null);
+        addStep(signalStep, signalStep::isSatisfied);
+    }
+
+    /**
+     * adds a step that waits until a condition is true, and only checks it again when a signal is fired. Anything that can change the condition should fire the signal.
+     * This task is parked(see {@link Task#park()}) between fires, so it isn't run while the condition can't have changed.
+     *
+     * @param signal the signal that is fired when the condition may have changed
+     * @param end    the condition that ends the step
+     */
+    public void addStep(Signal signal, BooleanSupplier end) {
+        if (signal == null || end == null) return;
+
+        SignalStep signalStep = new SignalStep(signal, end);
+        addStep(signalStep, signalStep::isSatisfied);
+    }
+
     /**
      * 1
      *
@@ -148,11 +245,10 @@ public class TaskEx extends Task {
      * @param end   1
      * @param index 1
      */
-    public void addStep(Runnable step, Supplier<Boolean> end, int index) {
+    public void addStep(Runnable step, BooleanSupplier end, int index) {
         if (step == null || end == null) return;
 
-        steps.add(index, step);
-        ends.add(index, end);
+        steps.add(index, new StepBuffer.Step(step, end));
 
         if(steps.size() == 1) {
             onEmptyAddStep();
@@ -174,7 +270,6 @@ public class TaskEx extends Task {
      */
     public void removeStep(int index, boolean stopIfActive) {
         steps.remove(index);
-        ends.remove(index);
         if(index < currentStep) {
             currentStep --;
             return;
@@ -199,8 +294,8 @@ public class TaskEx extends Task {
      * 1
      */
     public void clear() {
+        cancelCompletion();
         steps.clear();
-        ends.clear();
         super.setRunnable(null);
         end = null;
         reset();
@@ -230,7 +325,7 @@ public class TaskEx extends Task {
     @Override
     public void run() {
         getRunnable().run();
-        if (end.get())
+        if (end.getAsBoolean())
             setToNextStep();
     }
 
@@ -246,34 +341,224 @@ public class TaskEx extends Task {
 
 
 
+    @Override
+    protected StringBuilder appendInfo(StringBuilder str, String tab, String start, boolean extend) {
+        appendBaseInfo(str, tab, start);
+        str.append('\n').append(start).append(tab).append("Completed: ").append(done);
+        str.append('\n').append(start).append(tab).append("Current Step: ").append(currentStep + 1);
+
+        if(extend) {
+            str.append('\n').append(start).append(tab).append("Total Steps: ").append(steps.size());
+            str.append('\n').append(start).append(tab).append("Auto Start: ").append(autoStart);
+            str.append('\n').append(start).append(tab).append("Auto Pause: ").append(autoPause);
+            str.append('\n').append(start).append(tab).append("Auto Reset: ").append(autoReset);
+        }
+        return str;
+    }
+
+    @Override
+    protected TaskSnapshot snapshot(String key, NodeStatus status, RunStats runStats) {
+        return new TaskSnapshot(key, getName(), getClass().getSimpleName(), status, runStats, autoStart, autoPause, steps.isEmpty() ? -1 : currentStep, steps.size(), done);
+    }
+
+
+    //----------Other----------//
     /**
-     * 1
-     *
-     * @param tab       1
-     * @param startTabs 1
-     * @return 1
+     * A step that starts some asynchronous work and parks this task until the work calls {@link AsyncStep#finish(int, Throwable)}
      */
-    @Override
-    public String getInfo(String tab, int startTabs, boolean extend) {
-        String start = tab.repeat(startTabs);
-        StringBuilder str = getBaseInfo(tab, start);
+    private abstract class AsyncStep implements Runnable {
+        private boolean started = false;
+        private int run = 0;
+        private volatile boolean finished = false;
+        private volatile Throwable failure;
+        private volatile Group wakeParent;
+        private volatile String wakeKey;
+
+        /**
+         * starts the asynchronous work
+         * @param run the number that has to be passed to {@link AsyncStep#finish(int, Throwable)} by this work
+         */
+        protected abstract void start(int run);
+
+        /**
+         * ends the step and wakes this task up(this can be called from any thread, and only the first call of the current run counts)
+         * @param run the number passed to {@link AsyncStep#start(int)}
+         * @param failure the exception the work failed with or null
+         */
+        protected final void finish(int run, Throwable failure) {
+            synchronized (this) {
+                if(run != this.run || finished) return;
+                this.failure = failure;
+                finished = true;
+            }
+
+            Group parent = wakeParent;
+            if(parent != null) parent.wakeChild(wakeKey);
+        }
 
-        str.append("\n");
-        str.append(start + tab + "Completed: " + done);
+        @Override
+        public void run() {
+            if(!started) {
+                //the parent is captured so the work wakes the group it was started in even if this is moved
+                wakeParent = isParentAttached() ? getParent() : null;
+                wakeKey = getParentKey();
+                started = true;
+                start(run);
+            }
+
+            //if the work finishes right after this check then its wake up is queued and unparks this next tick
+            if(!finished) park();
+        }
 
-        str.append("\n");
-        str.append(start + tab + "Current Step: " + (currentStep + 1));
+        final boolean isFinished() {
+            Throwable t;
+            synchronized (this) {
+                if(!finished) return false;
+                started = false;
+                finished = false;
+                run++;
+                t = failure;
+                failure = null;
+            }
+
+            if(t != null) throw new CompletionException("async step of " + getName() + " failed", t);
+            return true;
+        }
+    }
 
-        if(extend) {
-            str.append("\n");
-            str.append(start + tab + "Total Steps: " + steps.size());
-            str.append("\n");
-            str.append(start + tab + "Auto Start: " + autoStart);
-            str.append("\n");
-            str.append(start + tab + "Auto Pause: " + autoPause);
-            str.append("\n");
-            str.append(start + tab + "Auto Reset: " + autoReset);
+    /**
+     * A step that parks this task until a {@link Signal} fires and its condition(if any) is true
+     */
+    private final class SignalStep extends Signal.Waiter implements Runnable {
+        private final Signal signal;
+        private final BooleanSupplier condition;
+        private boolean waiting = false;
+        private long startGeneration;
+        private boolean satisfied = false;
+        private volatile Group wakeParent;
+        private volatile String wakeKey;
+
+        private SignalStep(Signal signal, BooleanSupplier condition) {
+            this.signal = signal;
+            this.condition = condition;
+        }
+
+        @Override
+        void onSignal() {
+            Group parent = wakeParent;
+            if(parent != null) parent.wakeChild(wakeKey);
+        }
+
+        @Override
+        public void run() {
+            if(condition != null ? condition.getAsBoolean() : waiting && signal.getGeneration() != startGeneration) {
+                satisfied = true;
+                return;
+            }
+
+            wakeParent = isParentAttached() ? getParent() : null;
+            wakeKey = getParentKey();
+            long generation = signal.register(this);
+            if(!waiting) {
+                waiting = true;
+                startGeneration = generation;
+            }
+
+            //the condition is checked again after registering so a fire between the first check and registering isn't missed
+            if(condition != null && condition.getAsBoolean()) {
+                signal.unregister(this);
+                satisfied = true;
+                return;
+            }
+            park();
+        }
+
+        private boolean isSatisfied() {
+            if(!satisfied) return false;
+            satisfied = false;
+            waiting = false;
+            return true;
+        }
+    }
+
+    /**
+     * A step that runs its action on the step executor
+     */
+    private final class BlockingStep extends AsyncStep {
+        private final Runnable action;
+
+        private BlockingStep(Runnable action) {
+            this.action = action;
+        }
+
+        @Override
+        protected void start(int run) {
+            getStepExecutor().execute(() -> {
+                Throwable failure = null;
+                try {
+                    action.run();
+                } catch (Throwable t) {
+                    failure = t;
+                } finally {
+                    finish(run, failure);
+                }
+            });
+        }
+    }
+
+    /**
+     * A step that waits for a {@link CompletionStage} to complete
+     */
+    private final class StageStep extends AsyncStep {
+        private final Supplier<? extends CompletionStage<?>> stage;
+
+        private StageStep(Supplier<? extends CompletionStage<?>> stage) {
+            this.stage = stage;
+        }
+
+        @Override
+        protected void start(int run) {
+            stage.get().whenComplete((result, failure) -> finish(run, failure));
+        }
+    }
+
+    /**
+     * A step that waits for the next signal of a {@link Flow.Publisher}
+     */
+    private final class PublisherStep extends AsyncStep {
+        private final Flow.Publisher<?> publisher;
+
+        private PublisherStep(Flow.Publisher<?> publisher) {
+            this.publisher = publisher;
+        }
+
+        @Override
+        protected void start(int run) {
+            publisher.subscribe(new Flow.Subscriber<Object>() {
+                private Flow.Subscription subscription;
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(Object item) {
+                    subscription.cancel();
+                    finish(run, null);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    finish(run, throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    finish(run, null);
+                }
+            });
         }
-        return str.toString();
     }
 }
@@ -0,0 +1,23 @@
+package om.self.task.core;
+
+/**
+ * The time source of a {@link Group} tree in nanoseconds(only differences between values have a meaning, like {@link System#nanoTime()}).
+ * The group that owns a clock calls {@link TickClock#tick()} once at the start of every tick, so every time based task in the tree reads the same time during a tick without asking the system for it again.
+ */
+public interface TickClock {
+    /**
+     * a clock that reads {@link System#nanoTime()} every time it is asked(used by tasks without a group)
+     */
+    TickClock LIVE = System::nanoTime;
+
+    /**
+     * gets the current time of this clock
+     * @return the time in nanoseconds
+     */
+    long nanoTime();
+
+    /**
+     * called by the group that owns this clock at the start of every tick
+     */
+    default void tick(){}
+}
@@ -0,0 +1,193 @@
+package om.self.task.core;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel that {@link Group} uses to park sleeping children until their wake up time.
+ * There are 4 levels of 64 slots, where every slot of a level covers a whole rotation of the level below it. Scheduling and canceling are O(1), and advancing only visits slots that have something in them or where a higher level has to be moved down, so the cost of a tick depends on the children that wake up and not on the ones that are still sleeping.
+ * Wake up times further away than the wheel covers are parked in the last level and moved down again until they are in range.
+ */
+final class TimerWheel {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (BITS * LEVELS)) - 1;
+
+    private final long resolutionNanos;
+    private final Consumer<Timeout> onExpired;
+    private final Timeout[][] heads = new Timeout[LEVELS][SLOTS];
+    private final long[] occupied = new long[LEVELS];
+    private long currentTick;
+    private int count = 0;
+
+    /**
+     * @param resolutionNanos the time of one slot in the lowest level
+     * @param nowNanos the current time
+     * @param onExpired called with every timeout that expires while advancing
+     */
+    TimerWheel(long resolutionNanos, long nowNanos, Consumer<Timeout> onExpired) {
+        if(resolutionNanos <= 0) throw new IllegalArgumentException("resolutionNanos must be more than 0!");
+        this.resolutionNanos = resolutionNanos;
+        this.onExpired = onExpired;
+        this.currentTick = Math.floorDiv(nowNanos, resolutionNanos);
+    }
+
+
+    //----------ACCESS----------//
+    int size(){
+        return count;
+    }
+
+    long getResolutionNanos(){
+        return resolutionNanos;
+    }
+
+
+    //----------SCHEDULE/CANCEL----------//
+    /**
+     * schedules a key to expire once the time reaches the deadline
+     * @param key the key
+     * @param deadlineNanos the time it expires
+     * @return the timeout that can be used to cancel it
+     */
+    Timeout schedule(String key, long deadlineNanos){
+        Timeout timeout = new Timeout(key, deadlineNanos, -Math.floorDiv(-deadlineNanos, resolutionNanos));
+        insert(timeout);
+        count++;
+        return timeout;
+    }
+
+    void cancel(Timeout timeout){
+        if(timeout.level < 0) return;
+        unlink(timeout);
+        count--;
+    }
+
+    private void insert(Timeout timeout){
+        long delta = timeout.deadlineTick - currentTick;
+        int level;
+        long placeTick;
+
+        if(delta <= 0){
+            //only happens while moving a level down, and the current slot of level 0 is expired right after that
+            level = 0;
+            placeTick = currentTick;
+        } else {
+            if(delta > MAX_DELTA) delta = MAX_DELTA;
+            placeTick = currentTick + delta;
+            level = (63 - Long.numberOfLeadingZeros(delta)) / BITS;
+        }
+
+        int slot = (int) ((placeTick >>> (BITS * level)) & MASK);
+        Timeout head = heads[level][slot];
+        timeout.level = level;
+        timeout.slot = slot;
+        timeout.prev = null;
+        timeout.next = head;
+        if(head != null) head.prev = timeout;
+        heads[level][slot] = timeout;
+        occupied[level] |= 1L << slot;
+    }
+
+    private void unlink(Timeout timeout){
+        if(timeout.prev != null) timeout.prev.next = timeout.next;
+        else heads[timeout.level][timeout.slot] = timeout.next;
+        if(timeout.next != null) timeout.next.prev = timeout.prev;
+
+        if(heads[timeout.level][timeout.slot] == null) occupied[timeout.level] &= ~(1L << timeout.slot);
+        timeout.level = -1;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+
+    //----------ADVANCE----------//
+    /**
+     * moves the wheel to the current time and expires everything that is due
+     * @param nowNanos the current time
+     */
+    void advance(long nowNanos){
+        long target = Math.floorDiv(nowNanos, resolutionNanos);
+
+        while(currentTick < target){
+            if(count == 0){
+                currentTick = target;
+                return;
+            }
+
+            //jump to the next slot of level 0 that has something in it or the next rotation, whichever is first
+            long base = currentTick & ~MASK;
+            int position = (int) (currentTick & MASK);
+            long later = position == MASK ? 0 : occupied[0] & (-1L << (position + 1));
+            long next = later != 0 ? base + Long.numberOfTrailingZeros(later) : base + SLOTS;
+            if(next > target){
+                currentTick = target;
+                return;
+            }
+
+            currentTick = next;
+            if((next & MASK) == 0) cascade(next);
+            expireSlot((int) (next & MASK), nowNanos);
+        }
+    }
+
+    private void cascade(long tick){
+        for (int level = 1; level < LEVELS; level++) {
+            int slot = (int) ((tick >>> (BITS * level)) & MASK);
+            Timeout timeout = heads[level][slot];
+            heads[level][slot] = null;
+            occupied[level] &= ~(1L << slot);
+
+            while(timeout != null){
+                Timeout next = timeout.next;
+                insert(timeout);
+                timeout = next;
+            }
+
+            //a higher level only moves down when this level finished a whole rotation
+            if(slot != 0) return;
+        }
+    }
+
+    private void expireSlot(int slot, long nowNanos){
+        Timeout timeout = heads[0][slot];
+        heads[0][slot] = null;
+        occupied[0] &= ~(1L << slot);
+
+        while(timeout != null){
+            Timeout next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            if(timeout.deadlineNanos - nowNanos > 0){
+                insert(timeout);
+            } else {
+                timeout.level = -1;
+                count--;
+                onExpired.accept(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+
+    //----------Other----------//
+    /**
+     * A key waiting in the wheel
+     */
+    static final class Timeout {
+        final String key;
+        final long deadlineNanos;
+        final long deadlineTick;
+        private int level = -1;
+        private int slot;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(String key, long deadlineNanos, long deadlineTick) {
+            this.key = key;
+            this.deadlineNanos = deadlineNanos;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package om.self.task.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TickClock} that only moves when it is told to, so tests and simulations can run time based tasks deterministically and faster than real time.
+ */
+public class VirtualTickClock implements TickClock {
+    private volatile long now;
+
+    /**
+     * Constructor that starts the clock at 0
+     */
+    public VirtualTickClock() {
+        this(0);
+    }
+
+    /**
+     * Constructor that starts the clock at a specific time
+     * @param startNanos the start time in nanoseconds
+     */
+    public VirtualTickClock(long startNanos) {
+        this.now = startNanos;
+    }
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    /**
+     * sets the time of this clock
+     * @param nanos the new time in nanoseconds
+     */
+    public void setNanoTime(long nanos) {
+        now = nanos;
+    }
+
+    /**
+     * moves this clock forward
+     * @param nanos the time to move in nanoseconds
+     */
+    public synchronized void advance(long nanos) {
+        now += nanos;
+    }
+
+    /**
+     * moves this clock forward
+     * @param time the time to move
+     * @param unit the unit of time
+     */
+    public void advance(long time, TimeUnit unit) {
+        advance(unit.toNanos(time));
+    }
+
+    /**
+     * runs a group a number of times and moves this clock forward before every run(the group should use this clock)
+     * @param group the group to run
+     * @param periodNanos the time to move before every run in nanoseconds
+     * @param ticks the number of times to run the group
+     */
+    public void runTicks(Group group, long periodNanos, long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            advance(periodNanos);
+            group.run();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package om.self.task.driver;
+
+/**
+ * What a {@link TickDriver} does when a tick finishes after the time the next tick should have started
+ */
+public enum MissedTickPolicy {
+    /**
+     * drops every tick whose start time already passed and waits for the next start time on the original schedule
+     */
+    SKIP,
+    /**
+     * runs the missed ticks back to back until the driver is back on schedule(limited by {@link TickDriver#getMaxCatchUpTicks()})
+     */
+    CATCH_UP,
+    /**
+     * runs one tick right away for all the missed ones and starts a new schedule from there
+     */
+    COALESCE
+}
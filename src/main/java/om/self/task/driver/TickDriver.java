@@ -0,0 +1,324 @@
+package om.self.task.driver;
+
+import om.self.task.core.Group;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs one or more root {@link Group}s at a fixed rate so you don't have to write your own {@code while(!group.isDone()) group.run();} loop.
+ * Tick start times are calculated from the first tick, so the rate doesn't drift, and the driver parks until shortly before every tick then spins for the rest of the time to get sub millisecond precision without keeping a core busy.
+ * A driver runs on its own thread or on a thread of an {@link Executor}, so several drivers can share one thread pool.
+ */
+public class TickDriver {
+    private final CopyOnWriteArrayList<Group> groups = new CopyOnWriteArrayList<>();
+    private final long periodNanos;
+
+    private MissedTickPolicy missedTickPolicy = MissedTickPolicy.SKIP;
+    private long spinThresholdNanos = 100_000;
+    private int maxCatchUpTicks = 10;
+    private boolean stopWhenDone = false;
+
+    private volatile boolean running = false;
+    private volatile Thread thread;
+    private volatile CountDownLatch stopped = new CountDownLatch(0);
+    private volatile Throwable failure;
+    private volatile long tickCount = 0;
+    private volatile long missedTickCount = 0;
+
+
+    //----------CONSTRUCTORS----------//
+    /**
+     * Constructor that sets the time between the start of every tick
+     * @param period the time between ticks
+     * @param unit the unit of period
+     */
+    public TickDriver(long period, TimeUnit unit) {
+        this.periodNanos = unit.toNanos(period);
+        if(periodNanos <= 0) throw new IllegalArgumentException("period must be more than 0!");
+    }
+
+    /**
+     * Constructor that sets the number of ticks per second
+     * @param hz the ticks per second
+     */
+    public TickDriver(double hz) {
+        this(Math.round(1_000_000_000 / hz), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Constructor that sets the number of ticks per second and the first group to run
+     * @param hz the ticks per second
+     * @param group the group to run every tick
+     */
+    public TickDriver(double hz, Group group) {
+        this(hz);
+        addGroup(group);
+    }
+
+
+    //----------GROUPS----------//
+    /**
+     * adds a group to run every tick(groups run in the order they were added)
+     * @param group the group
+     */
+    public void addGroup(Group group) {
+        if(group == null) throw new IllegalArgumentException("group can not be null!");
+        groups.addIfAbsent(group);
+    }
+
+    /**
+     * removes a group so it isn't run anymore(this is safe to call while the driver is running)
+     * @param group the group
+     */
+    public void removeGroup(Group group) {
+        groups.remove(group);
+    }
+
+    /**
+     * gets the groups run every tick
+     * @return an unmodifiable list of the groups
+     */
+    public List<Group> getGroups() {
+        return List.copyOf(groups);
+    }
+
+
+    //----------GETTER and SETTER----------//
+    /**
+     * gets the time between the start of every tick
+     * @return the period in nanoseconds
+     */
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    /**
+     * gets what happens when a tick finishes after the next tick should have started
+     * @return the policy
+     */
+    public MissedTickPolicy getMissedTickPolicy() {
+        return missedTickPolicy;
+    }
+
+    /**
+     * sets what happens when a tick finishes after the next tick should have started
+     * @param missedTickPolicy the policy
+     */
+    public void setMissedTickPolicy(MissedTickPolicy missedTickPolicy) {
+        if(missedTickPolicy == null) throw new IllegalArgumentException("missedTickPolicy can not be null!");
+        this.missedTickPolicy = missedTickPolicy;
+    }
+
+    /**
+     * gets how long before a tick the driver stops parking and starts spinning
+     * @return the spin threshold in nanoseconds
+     */
+    public long getSpinThresholdNanos() {
+        return spinThresholdNanos;
+    }
+
+    /**
+     * sets how long before a tick the driver stops parking and starts spinning(0 never spins, a value bigger than the period always spins)
+     * @param spinThresholdNanos the spin threshold in nanoseconds
+     */
+    public void setSpinThresholdNanos(long spinThresholdNanos) {
+        this.spinThresholdNanos = Math.max(spinThresholdNanos, 0);
+    }
+
+    /**
+     * gets the most missed ticks {@link MissedTickPolicy#CATCH_UP} will run back to back
+     * @return the maximum number of ticks to catch up
+     */
+    public int getMaxCatchUpTicks() {
+        return maxCatchUpTicks;
+    }
+
+    /**
+     * sets the most missed ticks {@link MissedTickPolicy#CATCH_UP} will run back to back(older ones are dropped)
+     * @param maxCatchUpTicks the maximum number of ticks to catch up
+     */
+    public void setMaxCatchUpTicks(int maxCatchUpTicks) {
+        this.maxCatchUpTicks = Math.max(maxCatchUpTicks, 0);
+    }
+
+    /**
+     * gets whether the driver stops by itself once every group is done
+     * @return whether to stop when done
+     */
+    public boolean isStopWhenDone() {
+        return stopWhenDone;
+    }
+
+    /**
+     * sets whether the driver stops by itself once every group is done
+     * @param stopWhenDone whether to stop when done
+     */
+    public void setStopWhenDone(boolean stopWhenDone) {
+        this.stopWhenDone = stopWhenDone;
+    }
+
+    /**
+     * gets the number of ticks that ran
+     * @return the tick count
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * gets the number of ticks that were dropped or merged because the driver fell behind
+     * @return the missed tick count
+     */
+    public long getMissedTickCount() {
+        return missedTickCount;
+    }
+
+    /**
+     * gets the exception that stopped the driver
+     * @return the exception or null if a group never threw
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+
+    //----------CHECKS----------//
+    /**
+     * checks if the driver is running
+     * @return whether the driver is running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * checks if every group is done
+     * @return whether every group is done
+     */
+    public boolean isDone() {
+        for (Group group : groups)
+            if(!group.isDone()) return false;
+        return true;
+    }
+
+
+    //----------START/STOP----------//
+    /**
+     * starts the driver on a new thread named after the first group
+     */
+    public synchronized void start() {
+        String name = groups.isEmpty() ? "tick driver" : groups.get(0).getName() + " tick driver";
+        start(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.start();
+        });
+    }
+
+    /**
+     * starts the driver on a thread of the executor(the driver keeps that thread until it stops)
+     * @param executor the executor to run the driver on
+     * @throws IllegalStateException if the driver is already running or is still finishing its last tick after {@link TickDriver#stop()}
+     */
+    public synchronized void start(Executor executor) {
+        //the old loop still has to clear its state, so starting now would run two loops at once
+        if(running || stopped.getCount() > 0) throw new IllegalStateException("the driver is already running!");
+
+        running = true;
+        failure = null;
+        stopped = new CountDownLatch(1);
+        executor.execute(this::loop);
+    }
+
+    /**
+     * asks the driver to stop after the current tick(this doesn't wait, use {@link TickDriver#awaitStop(long, TimeUnit)} before starting it again)
+     */
+    public void stop() {
+        running = false;
+        Thread current = thread;
+        if(current != null) LockSupport.unpark(current);
+    }
+
+    /**
+     * waits for the driver to stop
+     * @param timeout the maximum time to wait
+     * @param unit the unit of timeout
+     * @return whether the driver stopped before the timeout
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public boolean awaitStop(long timeout, TimeUnit unit) throws InterruptedException {
+        return stopped.await(timeout, unit);
+    }
+
+
+    //----------LOOP----------//
+    /**
+     * runs every group once
+     */
+    protected void runTick() {
+        for (Group group : groups)
+            group.run();
+    }
+
+    private void loop() {
+        thread = Thread.currentThread();
+        try {
+            long next = System.nanoTime();
+            while (running) {
+                waitUntil(next);
+                if(!running) break;
+
+                runTick();
+                tickCount++;
+                if(stopWhenDone && isDone()) break;
+
+                next += periodNanos;
+                next = reschedule(next, System.nanoTime());
+            }
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            running = false;
+            thread = null;
+            stopped.countDown();
+        }
+    }
+
+    private long reschedule(long next, long now) {
+        long late = now - next;
+        if(late < 0) return next;
+
+        switch (missedTickPolicy) {
+            case SKIP: {
+                //every start time that passed is dropped and the next tick waits for the next one on the original schedule
+                long missed = late / periodNanos + 1;
+                missedTickCount += missed;
+                return next + missed * periodNanos;
+            }
+            case CATCH_UP: {
+                long missed = late / periodNanos;
+                if(missed <= maxCatchUpTicks) return next;
+                missedTickCount += missed - maxCatchUpTicks;
+                return next + (missed - maxCatchUpTicks) * periodNanos;
+            }
+            default: {
+                missedTickCount += late / periodNanos;
+                return now;
+            }
+        }
+    }
+
+    private void waitUntil(long deadline) {
+        while (running) {
+            long remaining = deadline - System.nanoTime();
+            if(remaining <= 0) return;
+
+            if(remaining > spinThresholdNanos) LockSupport.parkNanos(remaining - spinThresholdNanos);
+            else Thread.onSpinWait();
+        }
+    }
+}
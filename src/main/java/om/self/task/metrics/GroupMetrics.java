@@ -0,0 +1,173 @@
+package om.self.task.metrics;
+
+import om.self.task.core.Group;
+import om.self.task.core.TaskEx;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The run time metrics of one {@link Group}, which are only recorded after {@link Group#enableMetrics()} is called.
+ * This records how long every tick, every queue drain and every run of each child took, and it can be registered as an MXBean so the same data can be read with JMX.
+ */
+public class GroupMetrics implements GroupMetricsMXBean {
+    private final Group group;
+    private final RunRecorder tick = new RunRecorder();
+    private final RunRecorder queueDrain = new RunRecorder();
+    private final ConcurrentHashMap<String, RunRecorder> children = new ConcurrentHashMap<>();
+    private ObjectName objectName;
+
+    /**
+     * Constructor that sets the group these metrics belong to
+     * @param group the group
+     */
+    public GroupMetrics(Group group) {
+        this.group = group;
+    }
+
+
+    //----------RECORD----------//
+    /**
+     * records how long a whole tick took
+     * @param nanos the time of the tick
+     */
+    public void recordTick(long nanos){
+        tick.record(nanos);
+    }
+
+    /**
+     * records how long running the queued group actions took
+     * @param nanos the time of the drain
+     */
+    public void recordQueueDrain(long nanos){
+        queueDrain.record(nanos);
+    }
+
+    /**
+     * records how long one run of a child took(this is called on the thread running the group, so the step advances are read from the child here and the stats never look at the group)
+     * @param key the key of the child
+     * @param child the child that ran
+     * @param nanos the time of the run
+     */
+    public void recordChild(String key, Runnable child, long nanos){
+        RunRecorder recorder = children.get(key);
+        if(recorder == null){
+            recorder = new RunRecorder();
+            RunRecorder previous = children.putIfAbsent(key, recorder);
+            if(previous != null) recorder = previous;
+        }
+        recorder.record(nanos, child instanceof TaskEx ? ((TaskEx) child).getStepAdvances() : 0);
+    }
+
+    /**
+     * forgets the recorded runs of a child(used when the child is detached)
+     * @param key the key of the child
+     */
+    public void removeChild(String key){
+        children.remove(key);
+    }
+
+
+    //----------READ----------//
+    /**
+     * gets the group these metrics belong to
+     * @return the group
+     */
+    public Group getGroup() {
+        return group;
+    }
+
+    @Override
+    public String getPath() {
+        StringBuilder path = new StringBuilder(group.getName());
+        for (Group parent = group.getParent(); parent != null; parent = parent.getParent())
+            path.insert(0, '/').insert(0, parent.getName());
+        return path.toString();
+    }
+
+    @Override
+    public RunStats getTickStats() {
+        return tick.getStats();
+    }
+
+    @Override
+    public RunStats getQueueDrainStats() {
+        return queueDrain.getStats();
+    }
+
+    /**
+     * gets the stats of one child
+     * @param key the key of the child
+     * @return the stats or {@link RunStats#EMPTY} if the child never ran
+     */
+    public RunStats getChildStats(String key){
+        RunRecorder recorder = children.get(key);
+        if(recorder == null) return RunStats.EMPTY;
+        return recorder.getStats();
+    }
+
+    @Override
+    public Map<String, RunStats> getChildStats() {
+        LinkedHashMap<String, RunStats> stats = new LinkedHashMap<>();
+        for (Map.Entry<String, RunRecorder> entry : children.entrySet())
+            stats.put(entry.getKey(), entry.getValue().getStats());
+        return stats;
+    }
+
+    @Override
+    public String getSlowestChild() {
+        String slowest = null;
+        long slowestMean = -1;
+        for (Map.Entry<String, RunStats> entry : getChildStats().entrySet()) {
+            if(entry.getValue().getCount() > 0 && entry.getValue().getMeanNanos() > slowestMean){
+                slowest = entry.getKey();
+                slowestMean = entry.getValue().getMeanNanos();
+            }
+        }
+        return slowest;
+    }
+
+    @Override
+    public void reset() {
+        tick.reset();
+        queueDrain.reset();
+        children.clear();
+    }
+
+
+    //----------JMX----------//
+    /**
+     * registers these metrics with the platform MBean server as {@code om.self.task:type=Group,path=<path>}
+     * @return the name it was registered with
+     * @throws IllegalStateException if the registration failed
+     */
+    public synchronized ObjectName registerMBean(){
+        if(objectName != null) return objectName;
+
+        try {
+            ObjectName name = new ObjectName("om.self.task:type=Group,path=" + ObjectName.quote(getPath()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+            return name;
+        } catch (JMException e) {
+            throw new IllegalStateException("could not register the metrics of " + getPath(), e);
+        }
+    }
+
+    /**
+     * unregisters these metrics from the platform MBean server if they were registered
+     */
+    public synchronized void unregisterMBean(){
+        if(objectName == null) return;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException ignore) {
+        } finally {
+            objectName = null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package om.self.task.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link GroupMetrics}
+ */
+public interface GroupMetricsMXBean {
+    /**
+     * gets the path of the group from the root group
+     * @return the path(names separated by /)
+     */
+    String getPath();
+
+    /**
+     * gets the stats of whole calls to {@link om.self.task.core.Group#run()}
+     * @return the tick stats
+     */
+    RunStats getTickStats();
+
+    /**
+     * gets the stats of running the queued group actions at the start of every tick
+     * @return the queue drain stats
+     */
+    RunStats getQueueDrainStats();
+
+    /**
+     * gets the stats of every child that was run since metrics were enabled
+     * @return the stats by child key
+     */
+    Map<String, RunStats> getChildStats();
+
+    /**
+     * gets the key of the child with the highest mean run time
+     * @return the key or null if no child ran
+     */
+    String getSlowestChild();
+
+    /**
+     * removes everything that was recorded
+     */
+    void reset();
+}
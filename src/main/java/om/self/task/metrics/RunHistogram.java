@@ -0,0 +1,91 @@
+package om.self.task.metrics;
+
+/**
+ * A log-linear histogram of run times in nanoseconds(the same idea as HdrHistogram with a precision of about 6%).
+ * Every power of 2 is split into 16 buckets, and the rows of buckets are only allocated once a value in that range is recorded, so a histogram of run times that stay in a few orders of magnitude only takes a few hundred bytes.
+ * Recording is O(1) and never allocates after the first value in a range.
+ */
+public class RunHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int ROWS = 64 - SUB_BITS + 1;
+
+    private final long[][] rows = new long[ROWS][];
+    private long count = 0;
+
+
+    //----------RECORD----------//
+    /**
+     * records one value
+     * @param value the value(negative values are recorded as 0)
+     */
+    public void record(long value){
+        if(value < 0) value = 0;
+
+        int row;
+        int sub;
+        if(value < SUB_BUCKETS){
+            row = 0;
+            sub = (int) value;
+        } else {
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            row = exponent - SUB_BITS + 1;
+            sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        }
+
+        long[] buckets = rows[row];
+        if(buckets == null){
+            buckets = new long[SUB_BUCKETS];
+            rows[row] = buckets;
+        }
+        buckets[sub]++;
+        count++;
+    }
+
+    /**
+     * removes all recorded values
+     */
+    public void reset(){
+        for (long[] buckets : rows)
+            if(buckets != null) java.util.Arrays.fill(buckets, 0);
+        count = 0;
+    }
+
+
+    //----------READ----------//
+    /**
+     * gets the number of recorded values
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * gets the value at a percentile(the lowest value of the bucket the percentile falls in)
+     * @param percentile the percentile from 0 to 100
+     * @return the value at the percentile or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile){
+        if(count == 0) return 0;
+
+        long target = (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count);
+        if(target < 1) target = 1;
+
+        long seen = 0;
+        for (int row = 0; row < ROWS; row++) {
+            long[] buckets = rows[row];
+            if(buckets == null) continue;
+            for (int sub = 0; sub < SUB_BUCKETS; sub++) {
+                seen += buckets[sub];
+                if(seen >= target) return lowestValue(row, sub);
+            }
+        }
+        return 0;
+    }
+
+    private static long lowestValue(int row, int sub){
+        if(row == 0) return sub;
+        return (long) (SUB_BUCKETS | sub) << (row - 1);
+    }
+}
@@ -0,0 +1,69 @@
+package om.self.task.metrics;
+
+/**
+ * Records the run times of one {@link Runnable} or one part of a tick.
+ * Only one thread should record at a time, but {@link RunRecorder#getStats()} can be called from any thread(the result may be slightly out of date).
+ */
+public class RunRecorder {
+    private final RunHistogram histogram = new RunHistogram();
+    private long count = 0;
+    private long lastNanos = 0;
+    private long totalNanos = 0;
+    private long maxNanos = 0;
+    private long stepAdvances = 0;
+
+    /**
+     * records one run
+     * @param nanos how long the run took
+     */
+    public void record(long nanos){
+        count++;
+        lastNanos = nanos;
+        totalNanos += nanos;
+        if(nanos > maxNanos) maxNanos = nanos;
+        histogram.record(nanos);
+    }
+
+    /**
+     * records one run of a runnable that moves through steps(like a {@link om.self.task.core.TaskEx})
+     * @param nanos how long the run took
+     * @param stepAdvances the number of step advances of the runnable after the run
+     */
+    public void record(long nanos, long stepAdvances){
+        this.stepAdvances = stepAdvances;
+        record(nanos);
+    }
+
+    /**
+     * removes everything that was recorded
+     */
+    public void reset(){
+        count = 0;
+        lastNanos = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+        stepAdvances = 0;
+        histogram.reset();
+    }
+
+    /**
+     * gets a summary of the recorded runs
+     * @return the stats
+     */
+    public RunStats getStats(){
+        long count = this.count;
+        if(count == 0) return RunStats.EMPTY;
+
+        return new RunStats(
+                count,
+                lastNanos,
+                count == 0 ? 0 : totalNanos / count,
+                maxNanos,
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9),
+                stepAdvances
+        );
+    }
+}
@@ -0,0 +1,89 @@
+package om.self.task.metrics;
+
+/**
+ * An immutable summary of the run times of one {@link Runnable} or one part of a tick. All times are in nanoseconds.
+ * This only has getters, so it can be returned from MXBeans.
+ */
+public final class RunStats {
+    /**
+     * stats with nothing recorded
+     */
+    public static final RunStats EMPTY = new RunStats(0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    private final long count;
+    private final long lastNanos;
+    private final long meanNanos;
+    private final long maxNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long stepAdvances;
+
+    /**
+     * creates stats from already calculated values
+     * @param count the number of runs
+     * @param lastNanos the time of the last run
+     * @param meanNanos the mean time of all runs
+     * @param maxNanos the time of the longest run
+     * @param p50Nanos the median time
+     * @param p90Nanos the 90th percentile time
+     * @param p99Nanos the 99th percentile time
+     * @param p999Nanos the 99.9th percentile time
+     * @param stepAdvances the number of times the runnable moved to another step(0 if it isn't a {@link om.self.task.core.TaskEx})
+     */
+    public RunStats(long count, long lastNanos, long meanNanos, long maxNanos, long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos, long stepAdvances) {
+        this.count = count;
+        this.lastNanos = lastNanos;
+        this.meanNanos = meanNanos;
+        this.maxNanos = maxNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.stepAdvances = stepAdvances;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getLastNanos() {
+        return lastNanos;
+    }
+
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getStepAdvances() {
+        return stepAdvances;
+    }
+
+    @Override
+    public String toString() {
+        String str = "runs: " + count + ", last: " + lastNanos + "ns, mean: " + meanNanos + "ns, max: " + maxNanos + "ns, p99: " + p99Nanos + "ns";
+        if(stepAdvances > 0) str += ", step advances: " + stepAdvances;
+        return str;
+    }
+}
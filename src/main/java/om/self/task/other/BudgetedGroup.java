@@ -0,0 +1,200 @@
+package om.self.task.other;
+
+import om.self.task.core.ActiveRunnableRegistry;
+import om.self.task.core.Group;
+
+/**
+ * A {@link Group} that gets a time budget for every tick.
+ * Once the budget is used up, no more active runnables are run in that tick, and the next tick continues with the active runnable after the last one that ran, so the order rotates and the same runnables don't get starved.
+ * Every tick that goes over its budget is reported to the {@link OverrunListener} with the key of the active runnable that was running when the budget ran out.
+ * @implNote the budget is measured from the start of {@link BudgetedGroup#run()}, so it includes the queued group actions, which are always run. At least one active runnable is run every tick, even if the queued group actions already used up the budget.
+ */
+public class BudgetedGroup extends Group {
+    private long tickBudgetNanos;
+    private OverrunListener overrunListener;
+
+    private long tickStart;
+    /**
+     * the key of the active runnable the next tick starts with(null to start with the first one)
+     */
+    private String nextKey;
+    /**
+     * the key of the last active runnable that ran, used to carry on after it if {@link BudgetedGroup#nextKey} isn't active anymore
+     */
+    private String lastKey;
+    /**
+     * where {@link BudgetedGroup#nextKey} was in the last snapshot, so it is usually found without searching
+     */
+    private int nextIndex = 0;
+    private long overrunCount = 0;
+    private int deferredLastTick = 0;
+
+
+    //----------CONSTRUCTOR----------//
+    /**
+     * Constructor that sets the name of this group and the time budget of every tick
+     * @param name the name of this group
+     * @param tickBudgetNanos the time budget of every tick in nanoseconds
+     */
+    public BudgetedGroup(String name, long tickBudgetNanos) {
+        super(name);
+        setTickBudgetNanos(tickBudgetNanos);
+    }
+
+    /**
+     * Constructor that sets the name of this group and the time budget of every tick then attaches it to a parent with the parent key as name
+     * @param name the name of this group and the key used to identify this to parent
+     * @param parent the parent this group is attached to
+     * @param tickBudgetNanos the time budget of every tick in nanoseconds
+     */
+    public BudgetedGroup(String name, Group parent, long tickBudgetNanos) {
+        this(name, name, parent, tickBudgetNanos);
+    }
+
+    /**
+     * Constructor that sets the name of this group and the time budget of every tick then attaches it to a parent with the parent key as parentKey
+     * @param name the name of this group
+     * @param parentKey the key used to identify this to parent
+     * @param parent the parent this group is attached to
+     * @param tickBudgetNanos the time budget of every tick in nanoseconds
+     */
+    public BudgetedGroup(String name, String parentKey, Group parent, long tickBudgetNanos) {
+        super(name, parentKey, parent);
+        setTickBudgetNanos(tickBudgetNanos);
+    }
+
+
+    //----------GETTER and SETTER----------//
+    /**
+     * gets the time budget of every tick
+     * @return the budget in nanoseconds
+     */
+    public long getTickBudgetNanos() {
+        return tickBudgetNanos;
+    }
+
+    /**
+     * sets the time budget of every tick
+     * @param tickBudgetNanos the budget in nanoseconds(must be more than 0)
+     */
+    public void setTickBudgetNanos(long tickBudgetNanos) {
+        if(tickBudgetNanos <= 0) throw new IllegalArgumentException("tickBudgetNanos must be more than 0!");
+        this.tickBudgetNanos = tickBudgetNanos;
+    }
+
+    /**
+     * gets the listener that is told about ticks that went over budget
+     * @return the listener or null
+     */
+    public OverrunListener getOverrunListener() {
+        return overrunListener;
+    }
+
+    /**
+     * sets the listener that is told about ticks that went over budget
+     * @param overrunListener the listener(null to not report overruns)
+     */
+    public void setOverrunListener(OverrunListener overrunListener) {
+        this.overrunListener = overrunListener;
+    }
+
+    /**
+     * gets the number of ticks that went over budget
+     * @return the overrun count
+     */
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * gets the number of active runnables that were not run in the last tick because the budget ran out
+     * @return the number of deferred active runnables
+     */
+    public int getDeferredLastTick() {
+        return deferredLastTick;
+    }
+
+
+    //----------OVERRIDE Group METHODS----------//
+    @Override
+    public void run() {
+        tickStart = System.nanoTime();
+        super.run();
+    }
+
+    @Override
+    protected void runActiveRunnables() {
+        ActiveRunnableRegistry.Snapshot snapshot = getActiveRunnables().snapshot();
+        String[] keys = snapshot.keys();
+        Runnable[] runnables = snapshot.runnables();
+        int size = keys.length;
+        deferredLastTick = 0;
+        if(size == 0) return;
+
+        int index = findResumeIndex(keys);
+        long deadline = tickStart + tickBudgetNanos;
+        long childStart = System.nanoTime();
+
+        for (int ran = 1; ran <= size; ran++) {
+            int current = index;
+            lastKey = keys[current];
+            runChild(keys[current], runnables[current]);
+            long now = System.nanoTime();
+            index = current + 1 == size ? 0 : current + 1;
+
+            if(now - deadline > 0){
+                overrunCount++;
+                deferredLastTick = size - ran;
+                OverrunListener listener = overrunListener;
+                if(listener != null)
+                    listener.onOverrun(this, keys[current], now - childStart, now - tickStart);
+                break;
+            }
+            childStart = now;
+        }
+
+        nextIndex = index;
+        nextKey = keys[index];
+    }
+
+    /**
+     * finds where the rotation carries on in a snapshot. Children that were started, paused or detached since the last tick move the others around, so the position is looked up by key.
+     * @param keys the keys of the snapshot
+     * @return the index to start at
+     */
+    private int findResumeIndex(String[] keys){
+        int hint = nextIndex < keys.length ? nextIndex : 0;
+        if(nextKey == null || nextKey.equals(keys[hint])) return hint;
+
+        int index = indexOf(keys, nextKey);
+        if(index >= 0) return index;
+
+        //the child that was next isn't active anymore, so this carries on with the one after the child that ran last
+        index = indexOf(keys, lastKey);
+        if(index >= 0) return index + 1 == keys.length ? 0 : index + 1;
+        return hint;
+    }
+
+    private static int indexOf(String[] keys, String key){
+        for (int i = 0; i < keys.length; i++)
+            if(keys[i].equals(key)) return i;
+        return -1;
+    }
+
+
+    //----------Other----------//
+    /**
+     * Gets told when a tick of a {@link BudgetedGroup} goes over budget
+     */
+    @FunctionalInterface
+    public interface OverrunListener {
+        /**
+         * called when a tick goes over budget
+         * @param group the group that went over budget
+         * @param key the key of the active runnable that was running when the budget ran out
+         * @param runNanos how long that active runnable took
+         * @param tickNanos how long the tick took so far
+         */
+        void onOverrun(BudgetedGroup group, String key, long runNanos, long tickNanos);
+    }
+}
@@ -2,12 +2,20 @@ package om.self.task.other;
 
 import om.self.task.core.Group;
 import om.self.task.core.TaskEx;
+import om.self.task.core.TickClock;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * 1
  */
 public class DelayTask extends TaskEx {
+    private TickClock clock;
     private long delayStart;
+    /**
+     * the step advance count when the current delay started, so a delay step knows if it was just moved to
+     */
+    private long delayAdvance = -1;
 
     /**
      * 1
@@ -37,11 +45,30 @@ public class DelayTask extends TaskEx {
     }
 
     /**
-     * 1
-     * @param delay 1
+     * adds a delay in milliseconds
+     * @param delay the delay in milliseconds
      */
     public void addDelay(int delay){
-		addStep(() -> {delayStart = System.currentTimeMillis();});
-		addStep(() -> (System.currentTimeMillis() - delayStart >= delay));
-	}
+        addDelay(delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * adds a delay measured with the clock of the parent group(see {@link TaskEx#getClock()}).
+     * While the delay runs this task sleeps in the parent group(see {@link TaskEx#sleepUntil(long)}), so it isn't run again until the delay is over.
+     * @param delay the delay
+     * @param unit the unit of delay
+     */
+    public void addDelay(long delay, TimeUnit unit){
+        long delayNanos = unit.toNanos(delay);
+        //one step so going to sleep doesn't move to another step, which would start this task again right away
+        addStep(() -> {
+            if(delayAdvance != getStepAdvances()){
+                delayAdvance = getStepAdvances();
+                clock = getClock();
+                delayStart = clock.nanoTime();
+            }
+            //if this was started early or has no parent to sleep in then it goes back to sleep or checks the time every tick
+            sleepUntil(delayStart + delayNanos);
+        }, () -> (clock.nanoTime() - delayStart >= delayNanos));
+    }
 }
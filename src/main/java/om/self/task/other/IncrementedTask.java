@@ -3,7 +3,7 @@ package om.self.task.other;
 import om.self.task.core.Group;
 import om.self.task.core.TaskEx;
 
-import java.util.function.Supplier;
+import java.util.function.BooleanSupplier;
 
 /**
  * 1
@@ -41,7 +41,7 @@ public class IncrementedTask extends TaskEx {
      * @param increment 1
      * @param end 1
      */
-    public void addIncrementedStep(Runnable step, int start, int increment, Supplier<Boolean> end){
+    public void addIncrementedStep(Runnable step, int start, int increment, BooleanSupplier end){
         if(step == null || end == null || increment == 0) return;
 
         addStep(() -> {
@@ -0,0 +1,292 @@
+package om.self.task.other;
+
+import om.self.task.core.ActiveRunnableRegistry;
+import om.self.task.core.Group;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiPredicate;
+
+/**
+ * A {@link Group} that splits its active runnables across a {@link ForkJoinPool} every time it is run.
+ * {@link ParallelGroup#run()} only returns once every active runnable has been run, and group actions that the children queue while running are added to the queued group actions in the same order the children were run in, so the next tick drains them deterministically.
+ * Commands that change which children are active({@link Command#START}, {@link Command#PAUSE}, sleeping, parking and the bulk commands) are held the same way while the children run in parallel, then run on the calling thread in the order the children were run in before {@link ParallelGroup#run()} goes on, so the state of this group is only ever changed by one thread.
+ * @apiNote the active runnables run concurrently, so they must not depend on each other or share state without synchronization.
+ */
+public class ParallelGroup extends Group {
+    private ForkJoinPool pool;
+    /**
+     * the minimum number of active runnables that one thread will run before the work is split(also the minimum number of active runnables needed to run in parallel at all)
+     */
+    private int splitThreshold = 16;
+
+    private final ThreadLocal<int[]> currentSlot = ThreadLocal.withInitial(() -> new int[]{-1});
+    private ArrayList<ArrayList<Runnable>> deferredActions = new ArrayList<>();
+
+
+    //----------CONSTRUCTOR----------//
+    /**
+     * Constructor that sets the name of this group and uses the {@link ForkJoinPool#commonPool()}
+     * @param name the name of this group
+     */
+    public ParallelGroup(String name) {
+        this(name, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor that sets the name of this group and the pool used to run the active runnables
+     * @param name the name of this group
+     * @param pool the pool used to run the active runnables
+     */
+    public ParallelGroup(String name, ForkJoinPool pool) {
+        super(name);
+        setPool(pool);
+    }
+
+    /**
+     * Constructor that sets the name of this group then attaches it to a parent with the parent key as name
+     * @param name the name of this group and the key used to identify this to parent
+     * @param parent the parent this group is attached to
+     */
+    public ParallelGroup(String name, Group parent) {
+        this(name, name, parent, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor that sets the name of this group and the pool used to run the active runnables then attaches it to a parent with the parent key as parentKey
+     * @param name the name of this group
+     * @param parentKey the key used to identify this to parent
+     * @param parent the parent this group is attached to
+     * @param pool the pool used to run the active runnables
+     */
+    public ParallelGroup(String name, String parentKey, Group parent, ForkJoinPool pool) {
+        super(name, parentKey, parent);
+        setPool(pool);
+    }
+
+
+    //----------GETTER and SETTER----------//
+    /**
+     * gets the pool used to run the active runnables
+     * @return the pool
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * sets the pool used to run the active runnables
+     * @param pool the pool(can't be null)
+     */
+    public void setPool(ForkJoinPool pool) {
+        if(pool == null) throw new IllegalArgumentException("pool can not be null!");
+        this.pool = pool;
+    }
+
+    /**
+     * gets the minimum number of active runnables that are run by one thread
+     * @return the split threshold
+     */
+    public int getSplitThreshold() {
+        return splitThreshold;
+    }
+
+    /**
+     * sets the minimum number of active runnables that are run by one thread(anything less than 1 is 1)
+     * @param splitThreshold the split threshold
+     */
+    public void setSplitThreshold(int splitThreshold) {
+        this.splitThreshold = Math.max(splitThreshold, 1);
+    }
+
+
+    //----------OVERRIDE Group METHODS----------//
+    /**
+     * adds a group action to the queue. If this is called by an active runnable while it is run in parallel then the action is held until every active runnable is done, so the order stays the same as the order the active runnables were run in.
+     * @param runnable the action to queue
+     */
+    @Override
+    public void addToQueuedGroupActions(Runnable runnable) {
+        int slot = currentSlot.get()[0];
+        if(slot >= 0){
+            deferredActions.get(slot).add(runnable);
+            return;
+        }
+
+        super.addToQueuedGroupActions(runnable);
+    }
+
+    /**
+     * runs a command on a child(see {@link Group#runKeyedCommand(String, Command, boolean)}). If this is called by an active runnable while it is run in parallel then {@link Command#START} and {@link Command#PAUSE} are held until every active runnable is done.
+     * @return whether the command was successful, or whether the child exists if the command was held
+     */
+    @Override
+    public boolean runKeyedCommand(String key, Command command, boolean force) {
+        int slot = currentSlot.get()[0];
+        if(slot >= 0 && (command == Command.START || command == Command.PAUSE)){
+            deferredActions.get(slot).add(new DeferredCommand(() -> super.runKeyedCommand(key, command, force)));
+            return getChild(key) != null;
+        }
+        return super.runKeyedCommand(key, command, force);
+    }
+
+    /**
+     * puts a child to sleep(see {@link Group#sleepChild(String, long)}). If this is called by an active runnable while it is run in parallel then the child is put to sleep once every active runnable is done.
+     * @return true if the child is now sleeping(or will be once the held command runs), false if it doesn't exist or the wake up time already passed
+     */
+    @Override
+    public boolean sleepChild(String key, long wakeNanos) {
+        int slot = currentSlot.get()[0];
+        if(slot >= 0){
+            if(getChild(key) == null || wakeNanos - getClock().nanoTime() <= 0) return false;
+            deferredActions.get(slot).add(new DeferredCommand(() -> super.sleepChild(key, wakeNanos)));
+            return true;
+        }
+        return super.sleepChild(key, wakeNanos);
+    }
+
+    /**
+     * parks a child(see {@link Group#parkChild(String)}). If this is called by an active runnable while it is run in parallel then the child is parked once every active runnable is done.
+     * @return true if the child is now parked(or will be once the held command runs), false if it doesn't exist
+     */
+    @Override
+    public boolean parkChild(String key) {
+        int slot = currentSlot.get()[0];
+        if(slot >= 0){
+            if(getChild(key) == null) return false;
+            deferredActions.get(slot).add(new DeferredCommand(() -> super.parkChild(key)));
+            return true;
+        }
+        return super.parkChild(key);
+    }
+
+    /**
+     * starts children(see {@link Group#startAll(Collection)}). If this is called by an active runnable while it is run in parallel then the children are started once every active runnable is done.
+     * @return the number of children that were started, or 0 if the command was held
+     */
+    @Override
+    public int startAll(Collection<String> keys) {
+        int slot = currentSlot.get()[0];
+        if(slot < 0) return super.startAll(keys);
+        deferredActions.get(slot).add(new DeferredCommand(() -> super.startAll(keys)));
+        return 0;
+    }
+
+    /**
+     * starts matching children(see {@link Group#startMatching(BiPredicate)}). If this is called by an active runnable while it is run in parallel then the children are started once every active runnable is done.
+     * @return the number of children that were started, or 0 if the command was held
+     */
+    @Override
+    public int startMatching(BiPredicate<String, Runnable> filter) {
+        int slot = currentSlot.get()[0];
+        if(slot < 0) return super.startMatching(filter);
+        deferredActions.get(slot).add(new DeferredCommand(() -> super.startMatching(filter)));
+        return 0;
+    }
+
+    /**
+     * pauses children(see {@link Group#pauseAll(Collection)}). If this is called by an active runnable while it is run in parallel then the children are paused once every active runnable is done.
+     * @return the number of children that were paused, or 0 if the command was held
+     */
+    @Override
+    public int pauseAll(Collection<String> keys) {
+        int slot = currentSlot.get()[0];
+        if(slot < 0) return super.pauseAll(keys);
+        deferredActions.get(slot).add(new DeferredCommand(() -> super.pauseAll(keys)));
+        return 0;
+    }
+
+    /**
+     * pauses matching children(see {@link Group#pauseMatching(BiPredicate)}). If this is called by an active runnable while it is run in parallel then the children are paused once every active runnable is done.
+     * @return the number of children that were paused, or 0 if the command was held
+     */
+    @Override
+    public int pauseMatching(BiPredicate<String, Runnable> filter) {
+        int slot = currentSlot.get()[0];
+        if(slot < 0) return super.pauseMatching(filter);
+        deferredActions.get(slot).add(new DeferredCommand(() -> super.pauseMatching(filter)));
+        return 0;
+    }
+
+    @Override
+    protected void runActiveRunnables() {
+        ActiveRunnableRegistry.Snapshot active = getActiveRunnables().snapshot();
+        if(active.size() <= splitThreshold){
+            super.runActiveRunnables();
+            return;
+        }
+
+        while(deferredActions.size() < active.size()) deferredActions.add(new ArrayList<>());
+
+        pool.invoke(new RunRange(active, 0, active.size()));
+
+        for (int i = 0; i < active.size(); i++) {
+            ArrayList<Runnable> actions = deferredActions.get(i);
+            if(actions.isEmpty()) continue;
+            //held commands run now like they would have without the pool, queued actions wait for the next tick
+            for (Runnable action : actions) {
+                if(action instanceof DeferredCommand) action.run();
+                else super.addToQueuedGroupActions(action);
+            }
+            actions.clear();
+        }
+    }
+
+
+    //----------Other----------//
+    /**
+     * A command that was held while the active runnables ran in parallel
+     */
+    private static final class DeferredCommand implements Runnable {
+        private final Runnable command;
+
+        private DeferredCommand(Runnable command) {
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            command.run();
+        }
+    }
+
+    /**
+     * Runs a range of active runnables and splits it in half when it is bigger than {@link ParallelGroup#splitThreshold}
+     */
+    private class RunRange extends RecursiveAction {
+        private final ActiveRunnableRegistry.Snapshot active;
+        private final int from;
+        private final int to;
+
+        private RunRange(ActiveRunnableRegistry.Snapshot active, int from, int to) {
+            this.active = active;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from > splitThreshold){
+                int mid = (from + to) >>> 1;
+                invokeAll(new RunRange(active, from, mid), new RunRange(active, mid, to));
+                return;
+            }
+
+            //the previous slot is restored because a nested join can run another range on this thread
+            int[] slot = currentSlot.get();
+            int previous = slot[0];
+            String[] keys = active.keys();
+            Runnable[] runnables = active.runnables();
+            try {
+                for (int i = from; i < to; i++) {
+                    slot[0] = i;
+                    runChild(keys[i], runnables[i]);
+                }
+            } finally {
+                slot[0] = previous;
+            }
+        }
+    }
+}
@@ -2,12 +2,16 @@ package om.self.task.other;
 
 import om.self.task.core.Group;
 import om.self.task.core.TaskEx;
+import om.self.task.core.TickClock;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * 1
  */
 public class TimedTask extends TaskEx {
-    private long startTime;
+    private TickClock clock = TickClock.LIVE;
+    private long startTime = clock.nanoTime();
 
     /**
      * 1
@@ -37,23 +41,45 @@ public class TimedTask extends TaskEx {
     }
 
     /**
-     * 1
-     * @param step 1
-     * @param time 1
+     * adds a step that runs for a time in milliseconds
+     * @param step the step to run
+     * @param time the time in milliseconds
      */
     public void addTimedStep(Runnable step, int time){
+        addTimedStep(step, time, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * adds a step that runs for a time measured with the clock of the parent group(see {@link TaskEx#getClock()})
+     * @param step the step to run
+     * @param time the time
+     * @param unit the unit of time
+     */
+    public void addTimedStep(Runnable step, long time, TimeUnit unit){
         //sanitize input
         if(time <= 0 || step == null) return;
 
-        addStep(() -> {startTime = System.currentTimeMillis();});
-        addStep(step, () -> (System.currentTimeMillis() - startTime >= time));
+        long timeNanos = unit.toNanos(time);
+        addStep(() -> {
+            clock = getClock();
+            startTime = clock.nanoTime();
+        });
+        addStep(step, () -> (clock.nanoTime() - startTime >= timeNanos));
     }
 
     /**
-     * 1
-     * @return 1
+     * gets how long the current timed step has been running in milliseconds
+     * @return the run time in milliseconds
      */
     public int getCurrentRunTime(){
-        return (int)(System.currentTimeMillis() - startTime);
+        return (int) TimeUnit.NANOSECONDS.toMillis(getCurrentRunTimeNanos());
+    }
+
+    /**
+     * gets how long the current timed step has been running in nanoseconds
+     * @return the run time in nanoseconds
+     */
+    public long getCurrentRunTimeNanos(){
+        return clock.nanoTime() - startTime;
     }
 }
@@ -0,0 +1,35 @@
+package om.self.task.snapshot;
+
+import java.io.IOException;
+
+/**
+ * Helpers that write values to an {@link Appendable} without making strings
+ */
+final class Appendables {
+    private Appendables() {}
+
+    static void appendLong(Appendable out, long value) throws IOException {
+        if(out instanceof StringBuilder){
+            ((StringBuilder) out).append(value);
+            return;
+        }
+        if(value == Long.MIN_VALUE){
+            out.append("-9223372036854775808");
+            return;
+        }
+
+        if(value < 0){
+            out.append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while(divisor <= value / 10) divisor *= 10;
+        for (; divisor > 0; divisor /= 10)
+            out.append((char) ('0' + (value / divisor) % 10));
+    }
+
+    static void repeat(Appendable out, CharSequence str, int times) throws IOException {
+        for (int i = 0; i < times; i++)
+            out.append(str);
+    }
+}
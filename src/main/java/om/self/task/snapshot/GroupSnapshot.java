@@ -0,0 +1,29 @@
+package om.self.task.snapshot;
+
+import om.self.task.metrics.RunStats;
+
+import java.util.List;
+
+/**
+ * A snapshot of a {@link om.self.task.core.Group} and everything under it
+ * @param key the key of the group in its parent or null for the root
+ * @param name the name of the group
+ * @param type the simple class name of the group
+ * @param status the status of the group in its parent
+ * @param runStats the run time of the group measured by its parent or null
+ * @param active the number of active children
+ * @param waiting the number of children waiting for a free slot
+ * @param sleeping the number of sleeping children
+ * @param parked the number of parked children
+ * @param queued the number of queued group actions
+ * @param tickStats the tick time of the group or null if it doesn't record metrics
+ * @param queueDrainStats the queue drain time of the group or null if it doesn't record metrics
+ * @param children the snapshots of every child in the order of {@link om.self.task.core.Group#getChildrenAndKeys()}
+ */
+public record GroupSnapshot(String key, String name, String type, NodeStatus status, RunStats runStats,
+                            int active, int waiting, int sleeping, int parked, int queued,
+                            RunStats tickStats, RunStats queueDrainStats, List<NodeSnapshot> children) implements NodeSnapshot {
+    public GroupSnapshot {
+        children = List.copyOf(children);
+    }
+}
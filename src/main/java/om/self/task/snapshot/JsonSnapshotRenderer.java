@@ -0,0 +1,94 @@
+package om.self.task.snapshot;
+
+import om.self.task.metrics.RunStats;
+
+import java.io.IOException;
+
+import static om.self.task.snapshot.Appendables.appendLong;
+
+/**
+ * Renders a snapshot tree as compact JSON. Every node is an object with its fields, groups have a "children" array, and run stats are objects of nanosecond values(or null when metrics are off).
+ */
+public class JsonSnapshotRenderer implements SnapshotRenderer {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Override
+    public void render(NodeSnapshot snapshot, Appendable out) throws IOException {
+        out.append("{\"key\":");
+        string(out, snapshot.key());
+        out.append(",\"name\":");
+        string(out, snapshot.name());
+        out.append(",\"type\":");
+        string(out, snapshot.type());
+        out.append(",\"status\":\"").append(snapshot.status().name()).append('"');
+        out.append(",\"runStats\":");
+        stats(out, snapshot.runStats());
+
+        if(snapshot instanceof GroupSnapshot group){
+            appendLong(out.append(",\"active\":"), group.active());
+            appendLong(out.append(",\"waiting\":"), group.waiting());
+            appendLong(out.append(",\"sleeping\":"), group.sleeping());
+            appendLong(out.append(",\"parked\":"), group.parked());
+            appendLong(out.append(",\"queued\":"), group.queued());
+            out.append(",\"tickStats\":");
+            stats(out, group.tickStats());
+            out.append(",\"queueDrainStats\":");
+            stats(out, group.queueDrainStats());
+            out.append(",\"children\":[");
+            boolean first = true;
+            for (NodeSnapshot child : group.children()) {
+                if(!first) out.append(',');
+                first = false;
+                render(child, out);
+            }
+            out.append(']');
+        } else if(snapshot instanceof TaskSnapshot task){
+            out.append(",\"autoStart\":").append(task.autoStart() ? "true" : "false");
+            out.append(",\"autoPause\":").append(task.autoPause() ? "true" : "false");
+            appendLong(out.append(",\"currentStep\":"), task.currentStep());
+            appendLong(out.append(",\"stepCount\":"), task.stepCount());
+            out.append(",\"done\":").append(task.done() ? "true" : "false");
+        }
+        out.append('}');
+    }
+
+    private static void stats(Appendable out, RunStats stats) throws IOException {
+        if(stats == null){
+            out.append("null");
+            return;
+        }
+        appendLong(out.append("{\"count\":"), stats.getCount());
+        appendLong(out.append(",\"lastNanos\":"), stats.getLastNanos());
+        appendLong(out.append(",\"meanNanos\":"), stats.getMeanNanos());
+        appendLong(out.append(",\"maxNanos\":"), stats.getMaxNanos());
+        appendLong(out.append(",\"p50Nanos\":"), stats.getP50Nanos());
+        appendLong(out.append(",\"p90Nanos\":"), stats.getP90Nanos());
+        appendLong(out.append(",\"p99Nanos\":"), stats.getP99Nanos());
+        appendLong(out.append(",\"p999Nanos\":"), stats.getP999Nanos());
+        out.append('}');
+    }
+
+    private static void string(Appendable out, String value) throws IOException {
+        if(value == null){
+            out.append("null");
+            return;
+        }
+
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if(c < 0x20) out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    else out.append(c);
+                }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,33 @@
+package om.self.task.snapshot;
+
+import om.self.task.metrics.RunStats;
+
+/**
+ * An immutable copy of one node of a {@link om.self.task.core.Group} tree, taken at one point in time so it can be read or rendered from any thread.
+ */
+public sealed interface NodeSnapshot permits GroupSnapshot, TaskSnapshot, RunnableSnapshot {
+    /**
+     * @return the key of this node in its parent or null for the root
+     */
+    String key();
+
+    /**
+     * @return the name of this node
+     */
+    String name();
+
+    /**
+     * @return the simple class name of this node
+     */
+    String type();
+
+    /**
+     * @return the status of this node in its parent
+     */
+    NodeStatus status();
+
+    /**
+     * @return the run time of this node measured by its parent or null if the parent doesn't record metrics
+     */
+    RunStats runStats();
+}
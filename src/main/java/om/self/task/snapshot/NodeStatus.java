@@ -0,0 +1,31 @@
+package om.self.task.snapshot;
+
+/**
+ * The state of a node as seen by its parent group when the snapshot was taken
+ */
+public enum NodeStatus {
+    /**
+     * the node has no parent(only the root of a snapshot)
+     */
+    NO_PARENT,
+    /**
+     * the node is in the active runnables of its parent
+     */
+    RUNNING,
+    /**
+     * the node is waiting for a free slot to start(see {@link om.self.task.admission.AdmissionPolicy})
+     */
+    WAITING,
+    /**
+     * the node is sleeping until a wake up time
+     */
+    SLEEPING,
+    /**
+     * the node is parked until it is woken up
+     */
+    PARKED,
+    /**
+     * the node is attached but not running
+     */
+    NOT_RUNNING
+}
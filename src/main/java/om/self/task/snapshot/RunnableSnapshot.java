@@ -0,0 +1,14 @@
+package om.self.task.snapshot;
+
+import om.self.task.metrics.RunStats;
+
+/**
+ * A snapshot of a plain {@link Runnable} child
+ * @param key the key of the runnable in its parent
+ * @param name the {@link Object#toString()} of the runnable
+ * @param type the simple class name of the runnable
+ * @param status the status of the runnable in its parent
+ * @param runStats the run time of the runnable measured by its parent or null
+ */
+public record RunnableSnapshot(String key, String name, String type, NodeStatus status, RunStats runStats) implements NodeSnapshot {
+}
@@ -0,0 +1,33 @@
+package om.self.task.snapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes a snapshot tree straight to an {@link Appendable}(like a {@link StringBuilder} or a {@link java.io.Writer}) without building intermediate strings
+ */
+public interface SnapshotRenderer {
+    /**
+     * writes a snapshot and everything under it
+     * @param snapshot the snapshot
+     * @param out where to write it
+     * @throws IOException if out throws
+     */
+    void render(NodeSnapshot snapshot, Appendable out) throws IOException;
+
+    /**
+     * writes a snapshot and everything under it to a new string
+     * @param snapshot the snapshot
+     * @return the rendered snapshot
+     */
+    default String render(NodeSnapshot snapshot){
+        StringBuilder str = new StringBuilder();
+        try {
+            render(snapshot, str);
+        } catch (IOException e) {
+            //a StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return str.toString();
+    }
+}
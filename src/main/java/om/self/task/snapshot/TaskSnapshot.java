@@ -0,0 +1,20 @@
+package om.self.task.snapshot;
+
+import om.self.task.metrics.RunStats;
+
+/**
+ * A snapshot of a {@link om.self.task.core.Task}
+ * @param key the key of the task in its parent or null if it has no parent
+ * @param name the name of the task
+ * @param type the simple class name of the task
+ * @param status the status of the task in its parent
+ * @param runStats the run time of the task measured by its parent or null
+ * @param autoStart whether the task starts when its runnable is set
+ * @param autoPause whether the task pauses after it runs(or after its last step)
+ * @param currentStep the index of the current step or -1 if the task has no steps
+ * @param stepCount the number of steps(0 if the task has no steps)
+ * @param done whether the task is done
+ */
+public record TaskSnapshot(String key, String name, String type, NodeStatus status, RunStats runStats,
+                           boolean autoStart, boolean autoPause, int currentStep, int stepCount, boolean done) implements NodeSnapshot {
+}
@@ -0,0 +1,103 @@
+package om.self.task.snapshot;
+
+import om.self.task.metrics.RunStats;
+
+import java.io.IOException;
+
+import static om.self.task.snapshot.Appendables.appendLong;
+import static om.self.task.snapshot.Appendables.repeat;
+
+/**
+ * Renders a snapshot tree as indented text in the same layout as {@link om.self.task.core.Group#getInfo(String, int, boolean, boolean, boolean)}
+ */
+public class TextSnapshotRenderer implements SnapshotRenderer {
+    private final String tab;
+
+    /**
+     * Constructor that uses the same tab as {@link om.self.task.core.Group#toString()}
+     */
+    public TextSnapshotRenderer() {
+        this("│\t");
+    }
+
+    /**
+     * Constructor that sets the string used to indent every level
+     * @param tab the indent
+     */
+    public TextSnapshotRenderer(String tab) {
+        if(tab == null) throw new IllegalArgumentException("tab can not be null!");
+        this.tab = tab;
+    }
+
+    @Override
+    public void render(NodeSnapshot snapshot, Appendable out) throws IOException {
+        render(snapshot, out, 0);
+    }
+
+    private void render(NodeSnapshot snapshot, Appendable out, int depth) throws IOException {
+        repeat(out, tab, depth);
+        out.append(snapshot.name()).append(" Info:");
+        line(out, depth + 1).append("Type: ").append(snapshot.type());
+        line(out, depth + 1).append("Status: ").append(statusText(snapshot.status()));
+        if(snapshot.runStats() != null)
+            appendStats(line(out, depth + 1).append("Run Time: "), snapshot.runStats());
+
+        if(snapshot instanceof GroupSnapshot group) renderGroup(group, out, depth);
+        else if(snapshot instanceof TaskSnapshot task) renderTask(task, out, depth);
+    }
+
+    private void renderGroup(GroupSnapshot group, Appendable out, int depth) throws IOException {
+        appendLong(line(out, depth + 1).append("All: "), group.children().size());
+        appendLong(line(out, depth + 1).append("Active: "), group.active());
+        appendLong(line(out, depth + 1).append("Waiting: "), group.waiting());
+        appendLong(line(out, depth + 1).append("Sleeping: "), group.sleeping());
+        appendLong(line(out, depth + 1).append("Parked: "), group.parked());
+        appendLong(line(out, depth + 1).append("Queued: "), group.queued());
+        if(group.tickStats() != null)
+            appendStats(line(out, depth + 1).append("Tick Time: "), group.tickStats());
+        if(group.queueDrainStats() != null)
+            appendStats(line(out, depth + 1).append("Queue Drain Time: "), group.queueDrainStats());
+
+        for (NodeSnapshot child : group.children()) {
+            line(out, depth + 2).append("Key: ").append(child.key());
+            out.append('\n');
+            render(child, out, depth + 3);
+        }
+    }
+
+    private void renderTask(TaskSnapshot task, Appendable out, int depth) throws IOException {
+        line(out, depth + 1).append("Completed: ").append(task.done() ? "true" : "false");
+        if(task.currentStep() >= 0){
+            appendLong(line(out, depth + 1).append("Current Step: "), task.currentStep() + 1);
+            appendLong(line(out, depth + 1).append("Total Steps: "), task.stepCount());
+        }
+        line(out, depth + 1).append("Auto Start: ").append(task.autoStart() ? "true" : "false");
+        line(out, depth + 1).append("Auto Pause: ").append(task.autoPause() ? "true" : "false");
+    }
+
+    private Appendable line(Appendable out, int depth) throws IOException {
+        out.append('\n');
+        repeat(out, tab, depth);
+        return out;
+    }
+
+    private static String statusText(NodeStatus status){
+        return switch (status) {
+            case NO_PARENT -> "No Parent";
+            case RUNNING -> "Running";
+            case WAITING -> "Waiting";
+            case SLEEPING -> "Sleeping";
+            case PARKED -> "Parked";
+            case NOT_RUNNING -> "Not Running";
+        };
+    }
+
+    private static void appendStats(Appendable out, RunStats stats) throws IOException {
+        appendLong(out.append("runs: "), stats.getCount());
+        appendLong(out.append(", last: "), stats.getLastNanos());
+        appendLong(out.append("ns, mean: "), stats.getMeanNanos());
+        appendLong(out.append("ns, max: "), stats.getMaxNanos());
+        appendLong(out.append("ns, p99: "), stats.getP99Nanos());
+        out.append("ns");
+    }
+}
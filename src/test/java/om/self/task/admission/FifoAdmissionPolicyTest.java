@@ -0,0 +1,59 @@
+package om.self.task.admission;
+
+import om.self.task.core.Group;
+import om.self.task.core.Task;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FifoAdmissionPolicyTest {
+    private Group group;
+
+    @Before
+    public void setUp() {
+        group = new Group("group");
+        group.setMaxActiveRunnables(1);
+        group.setAdmissionPolicy(new FifoAdmissionPolicy());
+    }
+
+    private Task addTask(String name){
+        Task task = new Task(name, group);
+        task.setRunnable(() -> {});
+        return task;
+    }
+
+    @Test
+    public void waitingChildrenStartInOrderWhenASlotFrees() {
+        Task a = addTask("a");
+        Task b = addTask("b");
+        Task c = addTask("c");
+        assertTrue(a.isRunning());
+        assertTrue(group.isChildWaiting("b"));
+        assertTrue(group.isChildWaiting("c"));
+        assertEquals(2, group.getAdmissionPolicy().getWaitingCount());
+
+        group.runKeyedCommand("a", Group.Command.PAUSE);
+        assertTrue(b.isRunning());
+        assertTrue(group.isChildWaiting("c"));
+
+        b.detachParent();
+        assertTrue(c.isRunning());
+        assertEquals(0, group.getAdmissionPolicy().getWaitingCount());
+    }
+
+    @Test
+    public void forcedStartPutsTheOldestChildAtTheBack() {
+        Task a = addTask("a");
+        Task b = addTask("b");
+        Task c = addTask("c");
+        group.runKeyedCommand("b", Group.Command.PAUSE);
+
+        assertTrue(group.runKeyedCommand("c", Group.Command.START, true));
+        assertTrue(c.isRunning());
+        assertFalse(a.isRunning());
+        assertTrue(group.isChildWaiting("a"));
+        assertFalse(b.isRunning());
+        assertFalse(group.isChildWaiting("b"));
+    }
+}
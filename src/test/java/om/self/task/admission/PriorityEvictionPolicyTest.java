@@ -0,0 +1,63 @@
+package om.self.task.admission;
+
+import om.self.task.core.Group;
+import om.self.task.core.Task;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PriorityEvictionPolicyTest {
+    private Group group;
+    private PriorityEvictionPolicy policy;
+
+    @Before
+    public void setUp() {
+        group = new Group("group");
+        group.setMaxActiveRunnables(2);
+        policy = new PriorityEvictionPolicy();
+        group.setAdmissionPolicy(policy);
+    }
+
+    private Task addTask(String name, int priority){
+        policy.setPriority(name, priority);
+        Task task = new Task(name, group);
+        task.setRunnable(() -> {});
+        return task;
+    }
+
+    @Test
+    public void higherPriorityEvictsTheLowestActiveChild() {
+        Task low = addTask("low", 1);
+        Task high = addTask("high", 5);
+        Task middle = addTask("middle", 3);
+
+        assertTrue(middle.isRunning());
+        assertTrue(high.isRunning());
+        assertFalse(low.isRunning());
+        assertTrue(group.isChildWaiting("low"));
+
+        //not higher than anything active, so it waits
+        Task lowest = addTask("lowest", 0);
+        assertFalse(lowest.isRunning());
+        assertTrue(group.isChildWaiting("lowest"));
+    }
+
+    @Test
+    public void highestWaitingPriorityStartsWhenASlotFrees() {
+        addTask("a", 5);
+        addTask("b", 5);
+        Task low = addTask("low", 1);
+        Task high = addTask("high", 2);
+        assertEquals(2, policy.getWaitingCount());
+
+        group.runKeyedCommand("a", Group.Command.PAUSE);
+        assertTrue(high.isRunning());
+        assertFalse(low.isRunning());
+
+        //a waiting child moves when its priority changes
+        policy.setPriority("low", 10);
+        group.runKeyedCommand("b", Group.Command.PAUSE);
+        assertTrue(low.isRunning());
+    }
+}
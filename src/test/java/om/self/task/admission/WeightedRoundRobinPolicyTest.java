@@ -0,0 +1,66 @@
+package om.self.task.admission;
+
+import om.self.task.core.Group;
+import om.self.task.core.Task;
+import om.self.task.core.VirtualTickClock;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WeightedRoundRobinPolicyTest {
+    private Group group;
+    private WeightedRoundRobinPolicy policy;
+    private StringBuilder order;
+
+    @Before
+    public void setUp() {
+        group = new Group("group");
+        policy = new WeightedRoundRobinPolicy(1);
+        group.setAdmissionPolicy(policy);
+        order = new StringBuilder();
+    }
+
+    private Task addTask(String name){
+        Task task = new Task(name, group);
+        task.setRunnable(() -> order.append(name));
+        return task;
+    }
+
+    @Test
+    public void rotatesByWeight() {
+        group.setMaxActiveRunnables(1);
+        policy.setWeight("a", 2);
+        addTask("a");
+        addTask("b");
+
+        for (int i = 0; i < 9; i++)
+            group.run();
+
+        //the first slice of a started before anything waited, so it was one tick shorter
+        assertEquals("abaabaaba", order.toString());
+    }
+
+    @Test
+    public void sleepingChildIsNotTimeSliced() {
+        VirtualTickClock clock = new VirtualTickClock();
+        group.setClock(clock);
+        group.setMaxActiveRunnables(2);
+        Task sleeper = addTask("s");
+        Task a = addTask("a");
+        Task b = addTask("b");
+        assertTrue(sleeper.sleepUntil(clock.nanoTime() + TimeUnit.SECONDS.toNanos(1)));
+        assertTrue(a.isRunning());
+        assertTrue(group.isChildWaiting("b"));
+
+        for (int i = 0; i < 6; i++)
+            group.run();
+
+        //the sleeper keeps its slot and sleeps the whole time, while a and b share the other one
+        assertTrue(sleeper.isSleeping());
+        assertFalse(group.isChildWaiting("s"));
+        assertEquals("bababa", order.toString());
+    }
+}
@@ -0,0 +1,117 @@
+package om.self.task.core;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class ActiveRunnableRegistryTest {
+    private static final Runnable NOTHING = () -> {};
+
+    @Test
+    public void snapshotKeepsInsertionOrder() {
+        ActiveRunnableRegistry registry = new ActiveRunnableRegistry();
+        registry.put("c", NOTHING);
+        registry.put("a", NOTHING);
+        registry.put("b", NOTHING);
+        registry.remove("a");
+        registry.put("a", NOTHING);
+
+        assertArrayEquals(new String[]{"c", "b", "a"}, registry.snapshot().keys());
+        assertEquals("c", registry.firstKey());
+    }
+
+    @Test
+    public void snapshotIsReusedUntilTheRegistryChanges() {
+        ActiveRunnableRegistry registry = new ActiveRunnableRegistry();
+        registry.put("a", NOTHING);
+
+        ActiveRunnableRegistry.Snapshot first = registry.snapshot();
+        assertSame(first, registry.snapshot());
+
+        registry.put("a", NOTHING);
+        assertSame(first, registry.snapshot());
+
+        registry.put("b", NOTHING);
+        ActiveRunnableRegistry.Snapshot second = registry.snapshot();
+        assertNotSame(first, second);
+        assertEquals(2, second.size());
+    }
+
+    @Test
+    public void iterationIsNotAffectedByChanges() {
+        ActiveRunnableRegistry registry = new ActiveRunnableRegistry();
+        for (int i = 0; i < 10; i++)
+            registry.put("k" + i, NOTHING);
+
+        int seen = 0;
+        for (Map.Entry<String, Runnable> entry : registry.entrySet()) {
+            registry.remove(entry.getKey());
+            registry.put("new" + seen, NOTHING);
+            seen++;
+        }
+
+        assertEquals(10, seen);
+        assertEquals(10, registry.size());
+    }
+
+    @Test(timeout = 30000)
+    public void concurrentRebuildsNeverPublishAnOlderView() throws InterruptedException {
+        ActiveRunnableRegistry registry = new ActiveRunnableRegistry();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread[] readers = new Thread[3];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                while(!done.get()) registry.snapshot();
+            });
+            readers[i].start();
+        }
+
+        for (int round = 0; round < 2000; round++) {
+            registry.put("k" + round, NOTHING);
+            if(round % 3 == 0) registry.remove("k" + (round / 2));
+        }
+        done.set(true);
+        for (Thread reader : readers)
+            reader.join();
+
+        assertEquals(new HashSet<>(registry.keySet()), new HashSet<>(Arrays.asList(registry.snapshot().keys())));
+        assertEquals(registry.size(), registry.snapshot().size());
+    }
+
+    @Test(timeout = 30000)
+    public void everyReaderSeesTheLastChangeOnceWritersStop() throws InterruptedException {
+        ActiveRunnableRegistry registry = new ActiveRunnableRegistry();
+        for (int round = 0; round < 500; round++) {
+            CountDownLatch start = new CountDownLatch(1);
+            String key = "k" + round;
+            Thread writer = new Thread(() -> {
+                await(start);
+                registry.put(key, NOTHING);
+            });
+            Thread reader = new Thread(() -> {
+                await(start);
+                registry.snapshot();
+            });
+            writer.start();
+            reader.start();
+            start.countDown();
+            registry.snapshot();
+            writer.join();
+            reader.join();
+
+            assertEquals(round + 1, registry.snapshot().size());
+        }
+    }
+
+    private static void await(CountDownLatch latch){
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package om.self.task.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class EventBusTest {
+    @Test(timeout = 10000)
+    public void consumerDeliversInOrder() throws InterruptedException {
+        EventManager manager = new EventManager("manager");
+        List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 4; i++) {
+            int event = i;
+            manager.attachToEvent("event " + i, "record", () -> delivered.add(event));
+        }
+
+        EventBus bus = manager.enableBus(8);
+        bus.start();
+        for (int i = 0; i < 100; i++)
+            manager.triggerEvent("event " + (i % 4));
+        bus.stop();
+
+        assertTrue(bus.awaitStop(5, TimeUnit.SECONDS));
+        assertEquals(100, delivered.size());
+        for (int i = 0; i < 100; i++)
+            assertEquals(i % 4, (int) delivered.get(i));
+    }
+
+    @Test(timeout = 10000)
+    public void fullBusWithoutConsumerDeliversOnTheProducer() {
+        EventManager manager = new EventManager("manager");
+        List<Integer> delivered = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int event = i;
+            manager.attachToEvent("event " + i, "record", () -> delivered.add(event));
+        }
+
+        EventBus bus = manager.enableBus(2);
+        for (int i = 0; i < 5; i++)
+            manager.triggerEvent("event " + i);
+        while (bus.runBatch() > 0);
+
+        assertEquals(List.of(0, 1, 2, 3, 4), delivered);
+    }
+
+    @Test(timeout = 10000)
+    public void handlerTriggeringIntoAFullBusInRunBatchDelivers() {
+        EventManager manager = new EventManager("manager");
+        AtomicInteger inner = new AtomicInteger();
+        manager.attachToEvent("inner", "count", inner::incrementAndGet);
+        manager.attachToEvent("outer", "trigger", () -> {
+            for (int i = 0; i < 3; i++)
+                manager.triggerEvent("inner");
+        });
+
+        EventBus bus = manager.enableBus(2);
+        manager.triggerEvent("outer");
+        while (bus.runBatch() > 0);
+
+        assertEquals(3, inner.get());
+    }
+
+    @Test(timeout = 10000)
+    public void cannotStartAgainUntilTheLastConsumerStopped() throws InterruptedException {
+        EventManager manager = new EventManager("manager");
+        EventBus bus = manager.enableBus(4);
+        Runnable[] loop = new Runnable[1];
+        bus.start(runnable -> loop[0] = runnable);
+        bus.stop();
+
+        //the first consumer didn't finish yet, so a second one would run next to it
+        assertThrows(IllegalStateException.class, bus::start);
+
+        loop[0].run();
+        assertTrue(bus.awaitStop(1, TimeUnit.SECONDS));
+
+        bus.start();
+        assertTrue(bus.isRunning());
+        bus.stop();
+        assertTrue(bus.awaitStop(5, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 10000)
+    public void disableBusDeliversWaitingEventsWithoutConsumer() {
+        EventManager manager = new EventManager("manager");
+        AtomicInteger count = new AtomicInteger();
+        manager.attachToEvent("event", "count", count::incrementAndGet);
+
+        EventBus bus = manager.enableBus(4);
+        for (int i = 0; i < 3; i++)
+            manager.triggerEvent("event");
+        assertEquals(0, count.get());
+
+        manager.disableBus();
+        assertEquals(3, count.get());
+        assertTrue(bus.isEmpty());
+        assertThrows(IllegalStateException.class, bus::start);
+
+        manager.triggerEvent("event");
+        assertEquals(4, count.get());
+    }
+
+    @Test(timeout = 10000)
+    public void producerWaitingOnAFullBusFinishesOnceTheBusIsDisabled() throws InterruptedException {
+        EventManager manager = new EventManager("manager");
+        AtomicInteger count = new AtomicInteger();
+        manager.attachToEvent("event", "count", count::incrementAndGet);
+
+        EventBus bus = manager.enableBus(2);
+        //the consumer is started but never gets a thread, so nothing makes space
+        Runnable[] loop = new Runnable[1];
+        bus.start(runnable -> loop[0] = runnable);
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 3; i++)
+                manager.triggerEvent("event");
+        });
+        producer.start();
+        while (bus.size() < 2) Thread.onSpinWait();
+
+        manager.disableBus();
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+
+        loop[0].run();
+        assertTrue(bus.awaitStop(1, TimeUnit.SECONDS));
+        assertEquals(3, count.get());
+    }
+}
@@ -0,0 +1,216 @@
+package om.self.task.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class EventManagerTest {
+    @Test
+    public void triggersHandlersInAttachOrderAndChildrenFirst() {
+        EventManager main = new EventManager("main");
+        EventManager child = new EventManager("child", main);
+        StringBuilder order = new StringBuilder();
+        main.attachToEvent("event", "a", () -> order.append('a'));
+        main.attachToEvent("event", "b", () -> order.append('b'));
+        child.attachToEvent("event", "c", () -> order.append('c'));
+
+        main.triggerEvent("event");
+        assertEquals("ab", order.toString());
+
+        order.setLength(0);
+        main.triggerEventRecursively("event");
+        assertEquals("cab", order.toString());
+
+        order.setLength(0);
+        main.detachFromEvent("event", "a");
+        main.triggerEventRecursively("event");
+        assertEquals("cb", order.toString());
+    }
+
+    @Test
+    public void getEventsIsADetachedCopy() {
+        EventManager manager = new EventManager("manager");
+        Runnable runnable = () -> {};
+        manager.attachToEvent("event", "handler", runnable);
+
+        Hashtable<String, Hashtable<String, Runnable>> events = manager.getEvents();
+        assertSame(runnable, events.get("event").get("handler"));
+
+        events.clear();
+        assertEquals(1, manager.getRunnables("event").size());
+        assertNotSame(events, manager.getEvents());
+    }
+
+    @Test
+    public void readOnlyLookupsDoNotGiveOutIds() {
+        EventManager manager = new EventManager("manager");
+        String event = "never attached " + System.nanoTime();
+
+        assertTrue(manager.getRunnables(event).isEmpty());
+        manager.detachFromEvent(event, "handler");
+        manager.clearEvent(event);
+
+        assertEquals(-1, EventManager.findEventId(event));
+    }
+
+    @Test
+    public void asyncTriggerRunsOnTheExecutorAndCollectsFailures() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            EventManager main = new EventManager("main");
+            main.setExecutor(pool);
+            EventManager child = new EventManager("child", main);
+            AtomicInteger ran = new AtomicInteger();
+            List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+            child.attachToEvent("event", "record", () -> {
+                threads.add(Thread.currentThread());
+                ran.incrementAndGet();
+            });
+            child.attachToEvent("event", "fail", () -> {
+                throw new IllegalStateException("handler failed");
+            });
+            main.attachToEvent("event", "after", ran::incrementAndGet);
+
+            //the child has no executor of its own, so it uses the one of the parent
+            assertSame(pool, child.getExecutor());
+
+            CompletableFuture<Void> future = main.triggerEventRecursivelyAsync("event");
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+            //the failing handler doesn't stop the others
+            assertEquals(2, ran.get());
+            assertNotSame(Thread.currentThread(), threads.get(0));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void parallelTriggerRunsChildrenBeforeTheParent() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            EventManager main = new EventManager("main");
+            main.setExecutor(pool);
+            EventManager left = new EventManager("left", main);
+            EventManager right = new EventManager("right", main);
+            AtomicInteger children = new AtomicInteger();
+            AtomicInteger childrenSeenByParent = new AtomicInteger(-1);
+            left.attachToEvent("event", "count", children::incrementAndGet);
+            right.attachToEvent("event", "count", children::incrementAndGet);
+            main.attachToEvent("event", "check", () -> childrenSeenByParent.set(children.get()));
+
+            main.triggerEventRecursivelyParallel("event").get(5, TimeUnit.SECONDS);
+
+            assertEquals(2, childrenSeenByParent.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void orderedTriggerKeepsTheOrderOfEveryHandler() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            EventManager manager = new EventManager("manager");
+            manager.setExecutor(pool);
+            List<Integer> first = Collections.synchronizedList(new ArrayList<>());
+            List<Integer> second = Collections.synchronizedList(new ArrayList<>());
+            manager.attachToEvent("event", "first", () -> first.add(first.size()));
+            manager.attachToEvent("event", "second", () -> second.add(second.size()));
+
+            CompletableFuture<Void> last = null;
+            for (int i = 0; i < 200; i++) {
+                last = manager.triggerEventOrdered("event");
+            }
+            last.get(5, TimeUnit.SECONDS);
+
+            assertEquals(200, first.size());
+            assertEquals(200, second.size());
+            for (int i = 0; i < 200; i++) {
+                assertEquals(i, (int) first.get(i));
+                assertEquals(i, (int) second.get(i));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void rejectedTriggersCompleteExceptionally() {
+        EventManager manager = new EventManager("manager");
+        manager.setExecutor(runnable -> {
+            throw new RejectedExecutionException("closed");
+        });
+        manager.attachToEvent("event", "handler", () -> {});
+
+        for (CompletableFuture<Void> future : List.of(manager.triggerEventAsync("event"), manager.triggerEventRecursivelyParallel("event"), manager.triggerEventOrdered("event"))) {
+            assertTrue(future.isCompletedExceptionally());
+            ExecutionException e = assertThrows(ExecutionException.class, future::get);
+            assertTrue(e.getCause().getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test
+    public void idsOfCollectedChannelsAreReused() throws InterruptedException {
+        EventManager manager = new EventManager("manager");
+        int first = attachAndClearChannel(manager);
+        boolean reused = false;
+        for (int i = 0; i < 50 && !reused; i++) {
+            System.gc();
+            Thread.sleep(10);
+            reused = attachAndClearChannel(manager) <= first;
+        }
+        assertTrue(reused);
+    }
+
+    @Test
+    public void channelsWithHandlersKeepTheirIds() throws InterruptedException {
+        EventManager manager = new EventManager("manager");
+        AtomicInteger old = new AtomicInteger();
+        //the manager is the only thing that still knows the channel
+        manager.attachToChannel(new IntEventChannel("old"), "handler", old::addAndGet);
+
+        for (int i = 0; i < 20; i++) {
+            System.gc();
+            Thread.sleep(10);
+            IntEventChannel channel = new IntEventChannel("new");
+            manager.publish(channel, 1);
+        }
+        assertEquals(0, old.get());
+    }
+
+    private static int attachAndClearChannel(EventManager manager){
+        IntEventChannel channel = new IntEventChannel("channel");
+        AtomicInteger value = new AtomicInteger();
+        manager.attachToChannel(channel, "handler", value::set);
+        manager.publish(channel, 5);
+        assertEquals(5, value.get());
+        manager.clearChannel(channel);
+        return channel.id;
+    }
+
+    @Test
+    public void trailingDoubleStarAlsoMatchesTheManagerItself() {
+        EventManager main = new EventManager("main");
+        EventManager drive = new EventManager("drive", main);
+        EventManager motor = new EventManager("motor", drive);
+        EventManager arm = new EventManager("arm", main);
+
+        assertEquals(List.of(main, drive, motor, arm), main.findManagers("main/**"));
+        assertEquals(List.of(drive, motor), main.findManagers("main/drive/**"));
+        assertEquals(List.of(drive, arm), main.findManagers("main/*"));
+        assertEquals(List.of(motor), main.findManagers("main/**/motor"));
+    }
+}
@@ -0,0 +1,80 @@
+package om.self.task.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that the steady-state tick(polling and advancing steps) does not allocate, using the allocation counter of the running thread.
+ * Starting and pausing children is not covered because the active runnable registry allocates an entry for every start.
+ */
+public class GroupAllocationTest {
+    private static final int WARMUP_TICKS = 20_000;
+    private static final int MEASURED_TICKS = 10_000;
+    /**
+     * a little room for one-off allocations like the JIT swapping in compiled code mid run, far less than one object per tick
+     */
+    private static final long MAX_BYTES = 1024;
+
+    private static long counter;
+
+    private com.sun.management.ThreadMXBean threads;
+
+    @Before
+    public void setUp() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue("thread allocation counting is not supported", bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue("thread allocation counting is not supported", threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void pollingTicksDoNotAllocate() {
+        Group root = new Group("root");
+        Group group = new Group("group", root);
+        for (int i = 0; i < 500; i++) {
+            new Task("task" + i, group).setRunnable(() -> counter++);
+
+            TaskEx taskEx = new TaskEx("taskEx" + i, group);
+            taskEx.autoPause = false;
+            taskEx.addStep(() -> counter++, () -> false);
+        }
+
+        assertNoAllocation(root);
+    }
+
+    @Test
+    public void stepAdvancesAndEndsDoNotAllocate() {
+        Group root = new Group("root");
+        Group group = new Group("group", root);
+        for (int i = 0; i < 500; i++) {
+            TaskEx taskEx = new TaskEx("taskEx" + i, group);
+            taskEx.autoPause = false;
+            taskEx.autoReset = true;
+            taskEx.addStep(() -> counter++);
+            taskEx.addStep(() -> counter++, () -> (counter & 1) == 0);
+            taskEx.addStep(() -> counter++);
+        }
+
+        assertNoAllocation(root);
+    }
+
+    private void assertNoAllocation(Group root){
+        for (int i = 0; i < WARMUP_TICKS; i++)
+            root.run();
+
+        long id = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < MEASURED_TICKS; i++)
+            root.run();
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+
+        assertTrue("the tick allocated " + allocated + " bytes in " + MEASURED_TICKS + " ticks", allocated <= MAX_BYTES);
+    }
+}
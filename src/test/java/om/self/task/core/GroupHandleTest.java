@@ -0,0 +1,64 @@
+package om.self.task.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class GroupHandleTest {
+    @Test
+    public void handlesAreReusedAfterDetach() {
+        Group group = new Group("group");
+        Task first = new Task("first", group);
+        first.setRunnable(() -> {});
+        int handle = group.getHandle("first");
+        assertEquals("first", group.getKey(handle));
+        assertSame(first, group.getChildByHandle(handle));
+        assertTrue(group.isChildRunning(handle));
+
+        first.detachParent();
+        assertNull(group.getKey(handle));
+        assertFalse(group.isChildRunning(handle));
+
+        Task second = new Task("second", group);
+        second.setRunnable(() -> {});
+        assertEquals(handle, group.getHandle("second"));
+        assertTrue(group.isChildRunning(handle));
+    }
+
+    @Test(timeout = 30000)
+    public void handlesGivenOutFromAnotherThreadKeepTheActiveBits() throws InterruptedException {
+        int children = 2000;
+        for (int round = 0; round < 20; round++) {
+            Group group = new Group("group");
+            for (int i = 0; i < children; i++)
+                new Task("t" + i, group).setRunnable(() -> {});
+
+            CountDownLatch start = new CountDownLatch(1);
+            Thread other = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                //grows the slots and bits while the tick thread pauses and starts children
+                for (int i = children - 1; i >= 0; i--)
+                    group.getHandle("t" + i);
+            });
+            other.start();
+
+            start.countDown();
+            for (int i = 0; i < children; i++) {
+                group.runKeyedCommand("t" + i, Group.Command.PAUSE);
+                if(i % 2 == 0) group.runKeyedCommand("t" + i, Group.Command.START);
+            }
+            other.join();
+
+            for (int i = 0; i < children; i++) {
+                int handle = group.getHandle("t" + i);
+                assertEquals("t" + i, group.isChildRunning("t" + i), group.isChildRunning(handle));
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package om.self.task.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class GroupInboxTest {
+    @Test(timeout = 30000)
+    public void actionsPostedFromManyThreadsAllRunOnTheTickThread() throws InterruptedException {
+        Group group = new Group("group");
+        group.setInboxCapacity(64);
+        Thread tickThread = Thread.currentThread();
+        AtomicInteger ran = new AtomicInteger();
+        AtomicInteger wrongThread = new AtomicInteger();
+
+        int producers = 4;
+        int posts = 2000;
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < posts; j++) {
+                    //the inbox is small, so producers retry while it is full
+                    while(!group.post(() -> {
+                        if(Thread.currentThread() != tickThread) wrongThread.incrementAndGet();
+                        ran.incrementAndGet();
+                    })) Thread.yield();
+                }
+            });
+            threads[i].start();
+        }
+
+        start.countDown();
+        while(ran.get() < producers * posts) group.run();
+        for (Thread thread : threads)
+            thread.join();
+        group.run();
+
+        assertEquals(producers * posts, ran.get());
+        assertEquals(0, wrongThread.get());
+        assertEquals(0, group.getInboxSize());
+    }
+
+    @Test
+    public void fullInboxRejectsPosts() {
+        Group group = new Group("group");
+        group.setInboxCapacity(4);
+        for (int i = 0; i < 4; i++)
+            assertTrue(group.post(() -> {}));
+        assertFalse(group.post(() -> {}));
+
+        group.run();
+        assertTrue(group.post(() -> {}));
+    }
+
+    @Test
+    public void groupIsNotDoneWhileActionsWait() {
+        Group group = new Group("group");
+        int[] ran = {0};
+        group.post(() -> ran[0]++);
+
+        assertFalse(group.isDone());
+        group.run();
+        assertEquals(1, ran[0]);
+        assertTrue(group.isDone());
+    }
+
+    @Test
+    public void inboxCanOnlyBeResizedBeforeAnythingIsPosted() {
+        Group group = new Group("group");
+        group.setInboxCapacity(8);
+        assertEquals(8, group.getInboxCapacity());
+
+        group.post(() -> {});
+        assertThrows(IllegalStateException.class, () -> group.setInboxCapacity(16));
+        group.run();
+        assertThrows(IllegalStateException.class, () -> group.setInboxCapacity(16));
+        assertEquals(8, group.getInboxCapacity());
+    }
+
+    @Test(timeout = 30000)
+    public void postingWakesAParkedGroup() throws InterruptedException {
+        Group parent = new Group("parent");
+        Group sub = new Group("sub", parent);
+        TaskEx waiter = new TaskEx("waiter", sub);
+        waiter.autoReset = false;
+        waiter.addStep(new Signal("never"));
+
+        for (int i = 0; i < 3; i++)
+            parent.run();
+        assertTrue(parent.isChildParked("sub"));
+
+        int[] ran = {0};
+        Thread producer = new Thread(() -> sub.post(() -> ran[0]++));
+        producer.start();
+        producer.join();
+
+        for (int i = 0; i < 3; i++)
+            parent.run();
+        assertEquals(1, ran[0]);
+    }
+}
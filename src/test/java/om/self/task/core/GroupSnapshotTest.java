@@ -0,0 +1,118 @@
+package om.self.task.core;
+
+import om.self.task.metrics.RunStats;
+import om.self.task.snapshot.GroupSnapshot;
+import om.self.task.snapshot.NodeStatus;
+import om.self.task.snapshot.TaskSnapshot;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class GroupSnapshotTest {
+    @Test(timeout = 10000)
+    public void snapshotOfATreeThatIsNotRunIsTakenRightAway() throws Exception {
+        Group root = new Group("root");
+        Group paused = new Group("paused", root);
+        new Task("task", paused).setRunnable(() -> {});
+        paused.runCommand(Group.Command.PAUSE);
+
+        CompletableFuture<GroupSnapshot> future = paused.requestSnapshot();
+        GroupSnapshot snapshot = future.get(5, TimeUnit.SECONDS);
+
+        assertEquals("paused", snapshot.name());
+        assertEquals(NodeStatus.NOT_RUNNING, snapshot.status());
+        assertEquals(1, snapshot.active());
+    }
+
+    @Test(timeout = 10000)
+    public void snapshotOfAPausedGroupInARunningTreeIsTakenByTheRoot() throws Exception {
+        Group root = new Group("root");
+        Group paused = new Group("paused", root);
+        new Task("task", paused).setRunnable(() -> {});
+        //run once so the start queued by autoManage is done before pausing
+        root.run();
+        paused.runCommand(Group.Command.PAUSE);
+        new Task("busy", root).setRunnable(() -> {});
+
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread[] tickThread = new Thread[1];
+        Thread ticker = new Thread(() -> {
+            tickThread[0] = Thread.currentThread();
+            while(!stop.get()) root.run();
+        });
+        ticker.start();
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                GroupSnapshot snapshot = paused.requestSnapshot().get(5, TimeUnit.SECONDS);
+                assertEquals(NodeStatus.NOT_RUNNING, snapshot.status());
+            }
+        } finally {
+            stop.set(true);
+            ticker.join();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void tickDoesNotWaitForASnapshotOnAnotherThread() throws Exception {
+        CountDownLatch inSnapshot = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Group root = new Group("root");
+        int[] runs = {0};
+        new Task("slow", root){
+            @Override
+            protected TaskSnapshot snapshot(String key, NodeStatus status, RunStats runStats) {
+                //only the first snapshot is slow
+                if(inSnapshot.getCount() > 0){
+                    inSnapshot.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.snapshot(key, status, runStats);
+            }
+        }.setRunnable(() -> runs[0]++);
+
+        CompletableFuture<CompletableFuture<GroupSnapshot>> request = CompletableFuture.supplyAsync(root::requestSnapshot);
+        inSnapshot.await();
+
+        //the reader is still in the middle of its snapshot, and the tick goes on anyway
+        root.run();
+        assertEquals(1, runs[0]);
+
+        release.countDown();
+        //the first snapshot saw a tick start, so it was taken again
+        GroupSnapshot snapshot = request.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+        assertEquals("root", snapshot.name());
+    }
+
+    @Test
+    public void overriddenGetInfoIsUsedForChildren() {
+        Group root = new Group("root");
+        Group group = new Group("group", root){
+            @Override
+            public String getInfo(String tab, int startTabs, boolean extend, boolean getRunningInfo, boolean getAllInfo) {
+                return tab.repeat(startTabs) + "custom group";
+            }
+        };
+        new Task("task", root){
+            @Override
+            public String getInfo(String tab, int startTabs, boolean extend) {
+                return tab.repeat(startTabs) + "custom task";
+            }
+        }.setRunnable(() -> {});
+        new Task("plain", group).setRunnable(() -> {});
+
+        String info = root.toString();
+        assertTrue(info, info.contains("custom group"));
+        assertTrue(info, info.contains("custom task"));
+        assertFalse(info, info.contains("plain Info"));
+    }
+}
@@ -0,0 +1,307 @@
+package om.self.task.core;
+
+import om.self.task.admission.FifoAdmissionPolicy;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class GroupTest {
+    private Group root;
+    private Group group;
+
+    @Before
+    public void setUp() {
+        root = new Group("root");
+        group = new Group("group", root);
+    }
+
+    private Task addTask(String name, boolean start){
+        Task task = new Task(name);
+        task.autoStart = start;
+        task.attachParent(group);
+        task.setRunnable(() -> {});
+        return task;
+    }
+
+    @Test
+    public void lastQueuedCommandForAChildWins() {
+        addTask("a", false);
+
+        group.runKeyedCommand("a", Group.Command.QUE_START);
+        group.runKeyedCommand("a", Group.Command.QUE_PAUSE);
+        group.runKeyedCommand("a", Group.Command.QUE_START);
+        assertEquals(1, group.getQueuedGroupActions().size());
+
+        group.run();
+        assertTrue(group.isChildRunning("a"));
+
+        group.runKeyedCommand("a", Group.Command.QUE_PAUSE);
+        group.runKeyedCommand("a", Group.Command.QUE_START);
+        group.runKeyedCommand("a", Group.Command.QUE_PAUSE);
+        group.run();
+        assertFalse(group.isChildRunning("a"));
+    }
+
+    @Test
+    public void queuedCommandsForDifferentChildrenKeepTheirOrder() {
+        StringBuilder order = new StringBuilder();
+        group.addToQueuedGroupActions(() -> order.append('x'));
+        addTask("a", false);
+        group.runKeyedCommand("a", Group.Command.QUE_START);
+        group.addToQueuedGroupActions(() -> order.append(group.isChildRunning("a") ? 'A' : 'a'));
+
+        group.run();
+        assertEquals("xA", order.toString());
+    }
+
+    @Test
+    public void commandQueuedWhileDrainingReplacesTheWaitingOne() {
+        addTask("a", false);
+        group.addToQueuedGroupActions(() -> group.runKeyedCommand("a", Group.Command.QUE_PAUSE));
+        group.runKeyedCommand("a", Group.Command.QUE_START);
+
+        group.run();
+        assertFalse(group.isChildRunning("a"));
+        assertTrue(group.getQueuedGroupActions().isEmpty());
+    }
+
+    @Test
+    public void queuedGroupActionsIsACopy() {
+        Runnable action = () -> {};
+        group.addToQueuedGroupActions(action);
+        group.addToQueuedGroupActions(action);
+
+        assertEquals(2, group.getQueuedGroupActions().size());
+        group.getQueuedGroupActions().clear();
+        assertEquals(action, group.getQueuedGroupActions().getFirst());
+    }
+
+    @Test
+    public void plainActionsRunEveryTimeTheyAreQueued() {
+        AtomicInteger count = new AtomicInteger();
+        Runnable action = count::incrementAndGet;
+        group.addToQueuedGroupActions(action);
+        group.addToQueuedGroupActions(action);
+        group.addToQueuedGroupActions(action);
+
+        group.run();
+        assertEquals(3, count.get());
+    }
+
+    @Test
+    public void lastQueuedCommandRunsAtItsOwnPosition() {
+        StringBuilder order = new StringBuilder();
+        addTask("a", false);
+        group.runKeyedCommand("a", Group.Command.QUE_START);
+        group.addToQueuedGroupActions(() -> order.append(group.isChildRunning("a") ? 'A' : 'a'));
+        group.runKeyedCommand("a", Group.Command.QUE_PAUSE);
+        group.runKeyedCommand("a", Group.Command.QUE_START);
+        group.addToQueuedGroupActions(() -> order.append(group.isChildRunning("a") ? 'A' : 'a'));
+        assertEquals(3, group.getQueuedGroupActions().size());
+
+        group.run();
+        assertEquals("aA", order.toString());
+        assertTrue(group.getQueuedGroupActions().isEmpty());
+    }
+
+    @Test
+    public void sleepingChildKeepsItsSlotWithoutEvictingOthers() {
+        VirtualTickClock clock = new VirtualTickClock();
+        root.setClock(clock);
+        group.setMaxActiveRunnables(2);
+
+        Task neighbour = addTask("neighbour", true);
+        Task sleeper = addTask("sleeper", true);
+        addTask("other", false);
+        assertTrue(sleeper.sleepUntil(clock.nanoTime() + TimeUnit.MILLISECONDS.toNanos(5)));
+
+        //the slot of the sleeper is still taken
+        assertFalse(group.runKeyedCommand("other", Group.Command.START));
+
+        clock.advance(10, TimeUnit.MILLISECONDS);
+        root.run();
+
+        assertTrue(sleeper.isRunning());
+        assertFalse(sleeper.isSleeping());
+        assertTrue(neighbour.isRunning());
+        assertFalse(group.isChildRunning("other"));
+    }
+
+    @Test
+    public void pausingASleepingChildGivesItsSlotToAWaitingChild() {
+        VirtualTickClock clock = new VirtualTickClock();
+        root.setClock(clock);
+        group.setMaxActiveRunnables(1);
+        group.setAdmissionPolicy(new FifoAdmissionPolicy());
+
+        Task sleeper = addTask("sleeper", true);
+        Task other = addTask("other", false);
+        assertTrue(sleeper.sleepUntil(clock.nanoTime() + TimeUnit.MILLISECONDS.toNanos(5)));
+        assertFalse(group.runKeyedCommand("other", Group.Command.START));
+        assertTrue(group.isChildWaiting("other"));
+
+        group.runKeyedCommand("sleeper", Group.Command.PAUSE);
+        assertTrue(other.isRunning());
+        assertFalse(sleeper.isSleeping());
+    }
+
+    @Test
+    public void parkedGroupGetsItsSlotBackWhenWoken() {
+        Group parent = new Group("parent");
+        parent.setMaxActiveRunnables(1);
+        Group sub = new Group("sub", parent);
+        Signal signal = new Signal("signal");
+        int[] after = {0};
+        TaskEx waiter = new TaskEx("waiter", sub);
+        waiter.autoReset = false;
+        waiter.addStep(signal);
+        waiter.addStep(() -> after[0]++);
+
+        for (int i = 0; i < 3; i++)
+            parent.run();
+        assertTrue(parent.isChildParked("sub"));
+
+        //the parked group keeps its slot
+        Task other = new Task("other", parent);
+        other.setRunnable(() -> {});
+        assertFalse(other.isRunning());
+
+        signal.fire();
+        for (int i = 0; i < 3; i++)
+            parent.run();
+
+        assertEquals(1, after[0]);
+        assertFalse(parent.isChildParked("sub"));
+    }
+
+    /**
+     * a group that counts the commands its children send it(by key or by handle)
+     */
+    private static class CountingGroup extends Group {
+        private final Map<String, Integer> counts = new HashMap<>();
+
+        private CountingGroup(String name) {
+            super(name);
+        }
+
+        private CountingGroup(String name, Group parent) {
+            super(name, parent);
+        }
+
+        @Override
+        public boolean runKeyedCommand(String key, Command command, boolean force) {
+            counts.merge(key + " " + command, 1, Integer::sum);
+            return super.runKeyedCommand(key, command, force);
+        }
+
+        @Override
+        public boolean runHandleCommand(int handle, Command command) {
+            //the other commands are passed on to runKeyedCommand, which counts them
+            if(command == Command.QUE_START || command == Command.QUE_PAUSE)
+                counts.merge(getKey(handle) + " " + command, 1, Integer::sum);
+            return super.runHandleCommand(handle, command);
+        }
+
+        private int count(String key, Command command){
+            return counts.getOrDefault(key + " " + command, 0);
+        }
+    }
+
+    private static List<String> addTasks(Group parent, int count){
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task("t" + i);
+            task.autoStart = false;
+            task.attachParent(parent);
+            task.setRunnable(() -> {});
+            keys.add("t" + i);
+        }
+        return keys;
+    }
+
+    @Test
+    public void startAllAndPauseAllUpdateTheParentOnce() {
+        CountingGroup parent = new CountingGroup("parent");
+        Group child = new Group("child", parent);
+        List<String> keys = addTasks(child, 5);
+        parent.counts.clear();
+
+        assertEquals(5, child.startAll(keys));
+        assertEquals(1, parent.count("child", Group.Command.QUE_START));
+        parent.run();
+        assertTrue(parent.isChildRunning("child"));
+
+        parent.counts.clear();
+        assertEquals(5, child.pauseAll(keys));
+        assertEquals(1, parent.count("child", Group.Command.QUE_PAUSE));
+        assertEquals(0, parent.count("child", Group.Command.QUE_START));
+        parent.run();
+        assertFalse(parent.isChildRunning("child"));
+    }
+
+    @Test
+    public void attachAllAndDetachAllUpdateTheParentOnce() {
+        CountingGroup parent = new CountingGroup("parent");
+        Group child = new Group("child", parent);
+        Map<String, Runnable> children = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task("t" + i);
+            task.autoStart = false;
+            task.setRunnable(() -> {});
+            children.put("t" + i, task);
+        }
+        parent.counts.clear();
+
+        //attaching and then starting is a batch nested in the attach batch, which still only updates the parent at the end
+        assertEquals(5, child.attachAll(children, true));
+        assertEquals(1, parent.count("child", Group.Command.QUE_START));
+        parent.run();
+        assertTrue(parent.isChildRunning("child"));
+
+        parent.counts.clear();
+        assertEquals(5, child.detachAll(children.keySet()));
+        assertEquals(1, parent.count("child", Group.Command.QUE_PAUSE));
+        parent.run();
+        assertFalse(parent.isChildRunning("child"));
+    }
+
+    @Test
+    public void batchInANestedGroupGoesUpOnce() {
+        CountingGroup top = new CountingGroup("top");
+        CountingGroup middle = new CountingGroup("middle", top);
+        Group bottom = new Group("bottom", middle);
+        List<String> keys = addTasks(bottom, 5);
+        top.counts.clear();
+        middle.counts.clear();
+
+        bottom.startAll(keys);
+        assertEquals(1, middle.count("bottom", Group.Command.QUE_START));
+        //the middle group starts the bottom group on its next tick, which is when it asks the top group to start it
+        assertEquals(0, top.count("middle", Group.Command.QUE_START));
+        middle.run();
+        assertEquals(1, top.count("middle", Group.Command.QUE_START));
+        top.run();
+        assertTrue(top.isChildRunning("middle"));
+        assertTrue(middle.isChildRunning("bottom"));
+
+        top.counts.clear();
+        middle.counts.clear();
+        bottom.pauseAll(keys);
+        assertEquals(1, middle.count("bottom", Group.Command.QUE_PAUSE));
+        top.run();
+        assertEquals(1, top.count("middle", Group.Command.QUE_PAUSE));
+        top.run();
+        assertFalse(top.isChildRunning("middle"));
+        assertEquals(1, middle.count("bottom", Group.Command.QUE_PAUSE));
+        assertEquals(0, middle.count("bottom", Group.Command.QUE_START));
+    }
+}
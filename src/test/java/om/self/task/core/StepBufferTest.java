@@ -0,0 +1,113 @@
+package om.self.task.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StepBufferTest {
+    private static StepBuffer.Step step(){
+        return new StepBuffer.Step(() -> {}, () -> true);
+    }
+
+    private static void assertSteps(List<StepBuffer.Step> expected, StepBuffer buffer){
+        assertEquals(expected.size(), buffer.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertSame("step " + i, expected.get(i), buffer.get(i));
+    }
+
+    @Test
+    public void addAndRemoveInTheMiddleAfterTheHeadWrapped() {
+        StepBuffer buffer = new StepBuffer();
+        List<StepBuffer.Step> expected = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            StepBuffer.Step step = step();
+            buffer.add(step);
+            expected.add(step);
+        }
+        //move the head near the end of the 8 long buffer, so the next steps wrap around to the start
+        for (int i = 0; i < 5; i++)
+            assertSame(expected.remove(0), buffer.remove(0));
+        for (int i = 0; i < 5; i++) {
+            StepBuffer.Step step = step();
+            buffer.add(step);
+            expected.add(step);
+        }
+        assertSteps(expected, buffer);
+
+        //shifts the front side
+        StepBuffer.Step front = step();
+        buffer.add(1, front);
+        expected.add(1, front);
+        assertSteps(expected, buffer);
+
+        //shifts the back side across the wrap
+        StepBuffer.Step back = step();
+        buffer.add(5, back);
+        expected.add(5, back);
+        assertSteps(expected, buffer);
+
+        assertSame(expected.remove(2), buffer.remove(2));
+        assertSteps(expected, buffer);
+        assertSame(expected.remove(4), buffer.remove(4));
+        assertSteps(expected, buffer);
+    }
+
+    @Test
+    public void popFrontLikeAQue() {
+        StepBuffer buffer = new StepBuffer();
+        List<StepBuffer.Step> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            StepBuffer.Step step = step();
+            buffer.add(step);
+            expected.add(step);
+        }
+
+        //every run pops the finished step and sometimes queues more, so the head keeps going around the buffer
+        for (int i = 0; i < 100; i++) {
+            assertSame(expected.remove(0), buffer.remove(0));
+            for (int j = 0; j < i % 3; j++) {
+                StepBuffer.Step step = step();
+                buffer.add(step);
+                expected.add(step);
+            }
+            assertSteps(expected, buffer);
+        }
+
+        while (!expected.isEmpty())
+            assertSame(expected.remove(0), buffer.remove(0));
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void matchesAListForRandomAddsAndRemoves() {
+        Random random = new Random(42);
+        StepBuffer buffer = new StepBuffer();
+        List<StepBuffer.Step> expected = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            if(expected.isEmpty() || random.nextInt(5) < 3) {
+                StepBuffer.Step step = step();
+                int index = random.nextInt(expected.size() + 1);
+                buffer.add(index, step);
+                expected.add(index, step);
+            } else {
+                int index = random.nextInt(expected.size());
+                assertSame(expected.remove(index), buffer.remove(index));
+            }
+            assertSteps(expected, buffer);
+        }
+    }
+
+    @Test
+    public void outOfBoundsIndexesThrow() {
+        StepBuffer buffer = new StepBuffer();
+        buffer.add(step());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.add(2, step()));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.remove(-1));
+    }
+}
@@ -0,0 +1,415 @@
+package om.self.task.core;
+
+import om.self.task.admission.FifoAdmissionPolicy;
+import om.self.task.admission.WeightedRoundRobinPolicy;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TaskTest {
+    private Group group;
+
+    @Before
+    public void setUp() {
+        group = new Group("group");
+    }
+
+    @Test
+    public void completesAfterTheAutoPauseRun() {
+        Task task = new Task("task", group);
+        task.autoPause = true;
+        task.setRunnable(() -> {});
+        CompletableFuture<Void> completion = task.getCompletion();
+
+        group.run();
+        assertTrue(completion.isDone());
+        assertFalse(completion.isCompletedExceptionally());
+
+        //the pause queued by finishing must not cancel a future asked for after that
+        CompletableFuture<Void> next = task.getCompletion();
+        group.run();
+        assertFalse(task.isRunning());
+        assertFalse(next.isDone());
+
+        task.runCommand(Group.Command.START);
+        group.run();
+        assertTrue(next.isDone());
+        assertFalse(next.isCancelled());
+    }
+
+    @Test
+    public void pausingBeforeDoneCancels() {
+        Task task = new Task("task", group);
+        task.setRunnable(() -> {});
+        CompletableFuture<Void> completion = task.getCompletion();
+
+        group.run();
+        assertFalse(completion.isDone());
+
+        group.runKeyedCommand("task", Group.Command.PAUSE);
+        assertTrue(completion.isCancelled());
+    }
+
+    @Test
+    public void detachingCancels() {
+        Task task = new Task("task", group);
+        task.setRunnable(() -> {});
+        CompletableFuture<Void> completion = task.getCompletion();
+
+        task.detachParent();
+        assertTrue(completion.isCancelled());
+    }
+
+    @Test
+    public void replacingTheRunnableCancels() {
+        Task task = new Task("task", group);
+        task.autoPause = true;
+        Runnable runnable = () -> {};
+        task.setRunnable(runnable);
+        CompletableFuture<Void> completion = task.getCompletion();
+
+        task.setRunnable(runnable);
+        assertFalse(completion.isDone());
+
+        task.setRunnable(() -> {});
+        assertTrue(completion.isCancelled());
+    }
+
+    @Test
+    public void taskExCompletesWhenTheLastStepEnds() {
+        TaskEx task = new TaskEx("task", group);
+        task.addStep(() -> {});
+        task.addStep(() -> {});
+        task.addStep(() -> {});
+        CompletableFuture<Void> completion = task.getCompletion();
+
+        group.run();
+        group.run();
+        assertFalse(completion.isDone());
+
+        group.run();
+        assertTrue(completion.isDone());
+        assertFalse(completion.isCancelled());
+
+        group.run();
+        assertFalse(task.isRunning());
+    }
+
+    @Test
+    public void clearingATaskExCancels() {
+        TaskEx task = new TaskEx("task", group);
+        task.addStep(() -> {});
+        task.addStep(() -> {});
+        CompletableFuture<Void> completion = task.getCompletion();
+
+        group.run();
+        task.clear();
+        assertTrue(completion.isCancelled());
+    }
+
+    @Test
+    public void evictedTaskIsCancelled() {
+        group.setMaxActiveRunnables(1);
+        Task task = new Task("task", group);
+        task.setRunnable(() -> {});
+        CompletableFuture<Void> completion = task.getCompletion();
+
+        Task other = new Task("other");
+        other.autoStart = false;
+        other.attachParent(group);
+        other.setRunnable(() -> {});
+        assertTrue(group.runKeyedCommand("other", Group.Command.START, true));
+
+        //the default policy doesn't remember the evicted task, so it won't finish
+        assertFalse(task.isRunning());
+        assertTrue(completion.isCancelled());
+    }
+
+    @Test
+    public void evictedTaskThatWaitsKeepsItsCompletion() {
+        group.setMaxActiveRunnables(1);
+        group.setAdmissionPolicy(new FifoAdmissionPolicy());
+        TaskEx task = new TaskEx("task", group);
+        task.addStep(() -> {});
+        task.addStep(() -> {});
+        CompletableFuture<Void> completion = task.getCompletion();
+        group.run();
+
+        Task other = new Task("other");
+        other.autoStart = false;
+        other.attachParent(group);
+        other.setRunnable(() -> {});
+        assertTrue(group.runKeyedCommand("other", Group.Command.START, true));
+        assertTrue(group.isChildWaiting("task"));
+        assertFalse(completion.isDone());
+
+        group.runKeyedCommand("other", Group.Command.PAUSE);
+        assertTrue(task.isRunning());
+        group.run();
+        assertTrue(completion.isDone());
+        assertFalse(completion.isCancelled());
+    }
+
+    @Test
+    public void timeSlicedTasksKeepTheirCompletion() {
+        group.setMaxActiveRunnables(1);
+        group.setAdmissionPolicy(new WeightedRoundRobinPolicy(1));
+        TaskEx first = new TaskEx("first", group);
+        TaskEx second = new TaskEx("second", group);
+        for (int i = 0; i < 3; i++) {
+            first.addStep(() -> {});
+            second.addStep(() -> {});
+        }
+        CompletableFuture<Void> firstCompletion = first.getCompletion();
+        CompletableFuture<Void> secondCompletion = second.getCompletion();
+        assertTrue(group.isChildWaiting("second"));
+
+        for (int i = 0; i < 10; i++)
+            group.run();
+
+        assertTrue(firstCompletion.isDone());
+        assertFalse(firstCompletion.isCancelled());
+        assertTrue(secondCompletion.isDone());
+        assertFalse(secondCompletion.isCancelled());
+    }
+
+    @Test(timeout = 10000)
+    public void blockingStepRunsOnAVirtualThreadByDefault() {
+        TaskEx task = new TaskEx("task", group);
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        task.addBlockingStep(() -> virtual.complete(Thread.currentThread().isVirtual()));
+        CompletableFuture<Void> completion = task.getCompletion();
+
+        group.run();
+        assertTrue(virtual.join());
+        while (!completion.isDone())
+            group.run();
+        assertFalse(completion.isCancelled());
+    }
+
+    @Test
+    public void blockingStepParksUntilTheActionFinishes() {
+        List<Runnable> actions = new ArrayList<>();
+        group.setStepExecutor(actions::add);
+        Group child = new Group("child", group);
+        TaskEx task = new TaskEx("task", child);
+        AtomicInteger runs = new AtomicInteger();
+        task.addBlockingStep(runs::incrementAndGet);
+        CompletableFuture<Void> completion = task.getCompletion();
+
+        //the executor of the root group is used by the tasks of its children
+        group.run();
+        assertEquals(1, actions.size());
+        assertTrue(child.isChildParked("task"));
+
+        group.run();
+        assertTrue(child.isChildParked("task"));
+        assertFalse(completion.isDone());
+
+        actions.get(0).run();
+        assertEquals(1, runs.get());
+        group.run();
+        assertTrue(completion.isDone());
+        assertFalse(completion.isCancelled());
+        assertEquals(1, actions.size());
+    }
+
+    @Test
+    public void failedBlockingStepIsRethrownWhenTheStepEnds() {
+        List<Runnable> actions = new ArrayList<>();
+        group.setStepExecutor(actions::add);
+        TaskEx task = new TaskEx("task", group);
+        IllegalStateException failure = new IllegalStateException("failed");
+        task.addBlockingStep(() -> {
+            throw failure;
+        });
+
+        group.run();
+        actions.get(0).run();
+        CompletionException thrown = assertThrows(CompletionException.class, group::run);
+        assertSame(failure, thrown.getCause());
+    }
+
+    @Test(timeout = 30000)
+    public void thousandsOfBlockingStepsCanBeInFlight() throws InterruptedException {
+        int tasks = 5000;
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger inFlight = new AtomicInteger();
+        List<CompletableFuture<Void>> completions = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            TaskEx task = new TaskEx("task " + i, group);
+            task.addBlockingStep(() -> {
+                inFlight.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            completions.add(task.getCompletion());
+        }
+
+        group.run();
+        assertEquals(tasks, group.getParkedCount());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (inFlight.get() < tasks) {
+            assertTrue("only " + inFlight.get() + " steps started", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+
+        release.countDown();
+        CompletableFuture<Void> all = CompletableFuture.allOf(completions.toArray(new CompletableFuture[0]));
+        while (!all.isDone()) {
+            assertTrue(System.nanoTime() < deadline);
+            group.run();
+        }
+        assertFalse(all.isCompletedExceptionally());
+        assertEquals(0, group.getParkedCount());
+    }
+
+    @Test
+    public void stageStepEndsWhenTheStageCompletes() {
+        TaskEx task = new TaskEx("task", group);
+        CompletableFuture<String> stage = new CompletableFuture<>();
+        task.addStep(stage);
+        CompletableFuture<Void> completion = task.getCompletion();
+
+        group.run();
+        group.run();
+        assertTrue(group.isChildParked("task"));
+        assertFalse(completion.isDone());
+
+        stage.complete("done");
+        group.run();
+        assertTrue(completion.isDone());
+        assertFalse(completion.isCancelled());
+    }
+
+    @Test
+    public void exceptionalStageIsRethrownWhenTheStepEnds() {
+        TaskEx task = new TaskEx("task", group);
+        CompletableFuture<String> stage = new CompletableFuture<>();
+        task.addStep(stage);
+        IllegalStateException failure = new IllegalStateException("failed");
+
+        group.run();
+        stage.completeExceptionally(failure);
+        CompletionException thrown = assertThrows(CompletionException.class, group::run);
+        assertSame(failure, thrown.getCause());
+    }
+
+    @Test
+    public void asyncStepGetsANewStageEveryTimeItStarts() {
+        TaskEx task = new TaskEx("task", group);
+        List<CompletableFuture<Void>> stages = new ArrayList<>();
+        task.addAsyncStep(() -> {
+            CompletableFuture<Void> stage = new CompletableFuture<>();
+            stages.add(stage);
+            return stage;
+        });
+        CompletableFuture<Void> completion = task.getCompletion();
+
+        group.run();
+        assertEquals(1, stages.size());
+        stages.get(0).complete(null);
+        group.run();
+        assertTrue(completion.isDone());
+
+        //the finished task was reset, so starting it again asks for a new stage
+        CompletableFuture<Void> next = task.getCompletion();
+        group.run();
+        task.runCommand(Group.Command.START);
+        group.run();
+        assertEquals(2, stages.size());
+        assertTrue(group.isChildParked("task"));
+        assertFalse(next.isDone());
+
+        stages.get(1).complete(null);
+        group.run();
+        assertTrue(next.isDone());
+        assertFalse(next.isCancelled());
+    }
+
+    @Test
+    public void publisherStepEndsOnTheFirstItemAndCancels() {
+        TaskEx task = new TaskEx("task", group);
+        TestPublisher publisher = new TestPublisher();
+        task.addStep(publisher);
+        CompletableFuture<Void> completion = task.getCompletion();
+
+        group.run();
+        assertEquals(1, publisher.subscribed);
+        assertEquals(1, publisher.requested);
+        assertTrue(group.isChildParked("task"));
+
+        publisher.subscriber.onNext("item");
+        assertTrue(publisher.cancelled);
+        group.run();
+        assertTrue(completion.isDone());
+        assertFalse(completion.isCancelled());
+    }
+
+    @Test
+    public void publisherStepEndsWhenThePublisherCompletes() {
+        TaskEx task = new TaskEx("task", group);
+        TestPublisher publisher = new TestPublisher();
+        task.addStep(publisher);
+        CompletableFuture<Void> completion = task.getCompletion();
+
+        group.run();
+        publisher.subscriber.onComplete();
+        group.run();
+        assertTrue(completion.isDone());
+        assertFalse(publisher.cancelled);
+    }
+
+    @Test
+    public void failedPublisherIsRethrownWhenTheStepEnds() {
+        TaskEx task = new TaskEx("task", group);
+        TestPublisher publisher = new TestPublisher();
+        task.addStep(publisher);
+        IllegalStateException failure = new IllegalStateException("failed");
+
+        group.run();
+        publisher.subscriber.onError(failure);
+        CompletionException thrown = assertThrows(CompletionException.class, group::run);
+        assertSame(failure, thrown.getCause());
+    }
+
+    /**
+     * a publisher that only records what its subscriber asks for, so the test decides when items are sent
+     */
+    private static class TestPublisher implements Flow.Publisher<Object> {
+        private Flow.Subscriber<? super Object> subscriber;
+        private int subscribed = 0;
+        private long requested = 0;
+        private boolean cancelled = false;
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Object> subscriber) {
+            this.subscriber = subscriber;
+            subscribed++;
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested += n;
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package om.self.task.driver;
+
+import om.self.task.core.Group;
+import om.self.task.core.TaskEx;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.*;
+
+public class TickDriverTest {
+    @Test(timeout = 10000)
+    public void stopsWhenDone() throws InterruptedException {
+        Group group = new Group("group");
+        int[] count = {0};
+        new TaskEx("task", group).addStep(() -> count[0]++, () -> count[0] >= 50);
+
+        TickDriver driver = new TickDriver(1000, group);
+        driver.setStopWhenDone(true);
+        driver.start();
+
+        assertTrue(driver.awaitStop(5, TimeUnit.SECONDS));
+        assertFalse(driver.isRunning());
+        assertEquals(50, count[0]);
+        assertNull(driver.getFailure());
+    }
+
+    @Test(timeout = 10000)
+    public void cannotStartAgainUntilTheLastLoopStopped() throws InterruptedException {
+        CountDownLatch inTick = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Group group = new Group("group"){
+            @Override
+            public void run() {
+                inTick.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        TickDriver driver = new TickDriver(1000, group);
+        driver.start();
+        inTick.await();
+        driver.stop();
+
+        assertThrows(IllegalStateException.class, driver::start);
+
+        release.countDown();
+        assertTrue(driver.awaitStop(5, TimeUnit.SECONDS));
+
+        driver.start();
+        assertTrue(driver.isRunning());
+        driver.stop();
+        assertTrue(driver.awaitStop(5, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 10000)
+    public void skipWaitsForTheNextStartTimeOnTheSchedule() throws InterruptedException {
+        long period = TimeUnit.MILLISECONDS.toNanos(50);
+        long[] starts = new long[2];
+        int[] ticks = {0};
+        Group group = new Group("group"){
+            @Override
+            public void run() {
+                if(ticks[0] < starts.length) starts[ticks[0]] = System.nanoTime();
+                if(ticks[0]++ == 0) sleepNanos(TimeUnit.MILLISECONDS.toNanos(70));
+            }
+
+            @Override
+            public boolean isDone() {
+                return ticks[0] >= starts.length;
+            }
+        };
+
+        TickDriver driver = new TickDriver(period, TimeUnit.NANOSECONDS);
+        driver.addGroup(group);
+        driver.setMissedTickPolicy(MissedTickPolicy.SKIP);
+        driver.setStopWhenDone(true);
+        driver.start();
+        assertTrue(driver.awaitStop(5, TimeUnit.SECONDS));
+
+        //the first tick took 70ms, so the start time at 50ms is dropped and the next tick waits for 100ms
+        assertTrue(starts[1] - starts[0] >= 2 * period - TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(driver.getMissedTickCount() >= 1);
+    }
+
+    private static void sleepNanos(long nanos){
+        long end = System.nanoTime() + nanos;
+        for (long remaining = nanos; remaining > 0; remaining = end - System.nanoTime())
+            LockSupport.parkNanos(remaining);
+    }
+}
@@ -0,0 +1,109 @@
+package om.self.task.metrics;
+
+import om.self.task.core.Group;
+import om.self.task.core.Task;
+import om.self.task.core.TaskEx;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class GroupMetricsTest {
+    private Group root;
+    private Group group;
+
+    @Before
+    public void setUp() {
+        root = new Group("root");
+        group = new Group("group", root);
+    }
+
+    @Test
+    public void recordsEveryRunOfEachChild() {
+        GroupMetrics metrics = group.enableMetrics();
+        new Task("fast", group).setRunnable(() -> {});
+        new Task("slow", group).setRunnable(() -> {
+            long end = System.nanoTime() + 200_000;
+            while (System.nanoTime() < end) Thread.onSpinWait();
+        });
+
+        for (int i = 0; i < 10; i++)
+            root.run();
+
+        Map<String, RunStats> stats = metrics.getChildStats();
+        assertEquals(2, stats.size());
+        assertEquals(10, stats.get("fast").getCount());
+        assertEquals(10, stats.get("slow").getCount());
+        RunStats slow = metrics.getChildStats("slow");
+        assertTrue(slow.getMeanNanos() >= 200_000);
+        assertTrue(slow.getP50Nanos() <= slow.getMaxNanos());
+        assertTrue(slow.getP99Nanos() >= slow.getP50Nanos());
+        assertEquals("slow", metrics.getSlowestChild());
+        assertEquals(10, metrics.getTickStats().getCount());
+        assertSame(RunStats.EMPTY, metrics.getChildStats("missing"));
+    }
+
+    @Test
+    public void recordsTheStepAdvancesOfTaskEx() {
+        GroupMetrics metrics = group.enableMetrics();
+        TaskEx task = new TaskEx("task", group);
+        task.autoReset = false;
+        for (int i = 0; i < 3; i++)
+            task.addStep(() -> {});
+
+        root.run();
+        root.run();
+        assertEquals(task.getStepAdvances(), metrics.getChildStats("task").getStepAdvances());
+        assertTrue(metrics.getChildStats("task").getStepAdvances() > 0);
+    }
+
+    @Test
+    public void detachedChildAndResetAreForgotten() {
+        GroupMetrics metrics = group.enableMetrics();
+        Task task = new Task("task", group);
+        task.setRunnable(() -> {});
+        new Task("other", group).setRunnable(() -> {});
+        root.run();
+
+        task.detachParent();
+        assertFalse(metrics.getChildStats().containsKey("task"));
+        assertTrue(metrics.getChildStats().containsKey("other"));
+
+        metrics.reset();
+        assertTrue(metrics.getChildStats().isEmpty());
+        assertEquals(0, metrics.getTickStats().getCount());
+        assertNull(metrics.getSlowestChild());
+    }
+
+    @Test
+    public void childStatsDoNotLookUpTheChildren() {
+        //the stats are read over JMX on another thread, where the children of the group can't be read safely
+        boolean[] readable = {true};
+        Group watched = new Group("watched", root) {
+            @Override
+            public Runnable getChild(String key) {
+                assertTrue("the child " + key + " was looked up", readable[0]);
+                return super.getChild(key);
+            }
+        };
+        GroupMetrics metrics = watched.enableMetrics();
+        TaskEx task = new TaskEx("task", watched);
+        task.addStep(() -> {});
+        task.addStep(() -> {});
+        root.run();
+        long stepAdvances = task.getStepAdvances();
+
+        readable[0] = false;
+        Map<String, RunStats> stats = metrics.getChildStats();
+        assertEquals(1, stats.get("task").getCount());
+        assertEquals(stepAdvances, stats.get("task").getStepAdvances());
+        assertEquals("task", metrics.getSlowestChild());
+    }
+
+    @Test
+    public void pathGoesFromTheRoot() {
+        assertEquals("root/group", group.enableMetrics().getPath());
+    }
+}
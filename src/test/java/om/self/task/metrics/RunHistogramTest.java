@@ -0,0 +1,87 @@
+package om.self.task.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RunHistogramTest {
+    /**
+     * checks a percentile is the lowest value of the bucket the exact value is in(the buckets are 1/16 of a power of 2 wide)
+     */
+    private static void assertNear(long exact, long value){
+        assertTrue(value + " is above " + exact, value <= exact);
+        assertTrue(value + " is too far below " + exact, value >= exact - exact / 16);
+    }
+
+    @Test
+    public void emptyHistogramReturnsZero() {
+        RunHistogram histogram = new RunHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        RunHistogram histogram = new RunHistogram();
+        for (int i = 1; i <= 10; i++)
+            histogram.record(i);
+
+        assertEquals(10, histogram.getCount());
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        assertEquals(9, histogram.getValueAtPercentile(90));
+        assertEquals(10, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void percentilesOfAUniformSpread() {
+        RunHistogram histogram = new RunHistogram();
+        for (int i = 1; i <= 100_000; i++)
+            histogram.record(i * 1000L);
+
+        assertNear(50_000_000L, histogram.getValueAtPercentile(50));
+        assertNear(90_000_000L, histogram.getValueAtPercentile(90));
+        assertNear(99_000_000L, histogram.getValueAtPercentile(99));
+        assertNear(99_900_000L, histogram.getValueAtPercentile(99.9));
+        assertNear(100_000_000L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void outlierOnlyShowsInTheHighPercentiles() {
+        RunHistogram histogram = new RunHistogram();
+        for (int i = 0; i < 999; i++)
+            histogram.record(1000);
+        histogram.record(5_000_000);
+
+        assertNear(1000, histogram.getValueAtPercentile(50));
+        assertNear(1000, histogram.getValueAtPercentile(99));
+        assertNear(5_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void extremeValuesAreClamped() {
+        RunHistogram histogram = new RunHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertNear(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+        //percentiles outside 0 to 100 are clamped
+        assertEquals(0, histogram.getValueAtPercentile(-10));
+        assertNear(Long.MAX_VALUE, histogram.getValueAtPercentile(200));
+    }
+
+    @Test
+    public void resetRemovesEverything() {
+        RunHistogram histogram = new RunHistogram();
+        histogram.record(1000);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+
+        histogram.record(20);
+        assertEquals(20, histogram.getValueAtPercentile(50));
+    }
+}
@@ -0,0 +1,93 @@
+package om.self.task.other;
+
+import om.self.task.core.Group;
+import om.self.task.core.Task;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BudgetedGroupTest {
+    private BudgetedGroup group;
+    private StringBuilder order;
+    /**
+     * the key of the child that takes longer than the budget the next time it runs
+     */
+    private String slow;
+
+    @Before
+    public void setUp() {
+        group = new BudgetedGroup("group", TimeUnit.MILLISECONDS.toNanos(20));
+        order = new StringBuilder();
+        for (String key : new String[]{"a", "b", "c", "d"}) {
+            Task task = new Task(key, group);
+            task.setRunnable(() -> {
+                order.append(key);
+                if(key.equals(slow)){
+                    slow = null;
+                    sleep(50);
+                }
+            });
+        }
+    }
+
+    private static void sleep(long millis){
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void overrunIsReportedWithTheKeyThatRanOutTheBudget() {
+        ArrayList<String> overruns = new ArrayList<>();
+        group.setOverrunListener((g, key, runNanos, tickNanos) -> {
+            assertSame(group, g);
+            assertTrue(runNanos >= TimeUnit.MILLISECONDS.toNanos(50));
+            assertTrue(tickNanos >= runNanos);
+            overruns.add(key);
+        });
+
+        slow = "b";
+        group.run();
+        assertEquals("ab", order.toString());
+        assertEquals(List.of("b"), overruns);
+        assertEquals(1, group.getOverrunCount());
+        assertEquals(2, group.getDeferredLastTick());
+
+        order.setLength(0);
+        group.run();
+        assertEquals("cdab", order.toString());
+        assertEquals(0, group.getDeferredLastTick());
+        assertEquals(1, group.getOverrunCount());
+    }
+
+    @Test
+    public void resumesAtTheSameChildAfterTheActiveSetChanged() {
+        slow = "b";
+        group.run();
+        assertEquals("ab", order.toString());
+
+        //pausing a child before the resume point moves the others forward in the snapshot
+        group.runKeyedCommand("a", Group.Command.PAUSE);
+        order.setLength(0);
+        group.run();
+        assertEquals("cdb", order.toString());
+    }
+
+    @Test
+    public void carriesOnAfterTheLastChildIfTheNextOneIsGone() {
+        slow = "b";
+        group.run();
+
+        group.runKeyedCommand("c", Group.Command.PAUSE);
+        order.setLength(0);
+        group.run();
+        assertEquals("dab", order.toString());
+    }
+}
@@ -0,0 +1,57 @@
+package om.self.task.other;
+
+import om.self.task.core.Group;
+import om.self.task.core.VirtualTickClock;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DelayTaskTest {
+    @Test
+    public void sleepsFromTheFirstTickUntilTheDelayIsOver() {
+        VirtualTickClock clock = new VirtualTickClock();
+        Group group = new Group("group");
+        group.setClock(clock);
+
+        DelayTask task = new DelayTask("task", group);
+        int[] after = {0};
+        task.addDelay(10, TimeUnit.MILLISECONDS);
+        task.addStep(() -> after[0]++);
+
+        group.run();
+        assertTrue(task.isSleeping());
+        assertFalse(task.isRunning());
+
+        for (int i = 0; i < 9; i++) {
+            clock.advance(1, TimeUnit.MILLISECONDS);
+            group.run();
+            assertTrue(task.isSleeping());
+        }
+        assertEquals(0, after[0]);
+
+        clock.advance(1, TimeUnit.MILLISECONDS);
+        while(!group.isDone()) group.run();
+        assertEquals(1, after[0]);
+    }
+
+    @Test
+    public void restartingStartsTheDelayAgain() {
+        VirtualTickClock clock = new VirtualTickClock();
+        Group group = new Group("group");
+        group.setClock(clock);
+
+        DelayTask task = new DelayTask("task", group);
+        task.addDelay(10, TimeUnit.MILLISECONDS);
+
+        group.run();
+        clock.advance(8, TimeUnit.MILLISECONDS);
+        task.restart();
+        group.run();
+        clock.advance(8, TimeUnit.MILLISECONDS);
+        group.run();
+
+        assertTrue(task.isSleeping());
+    }
+}
@@ -0,0 +1,102 @@
+package om.self.task.other;
+
+import om.self.task.core.Group;
+import om.self.task.core.Task;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ParallelGroupTest {
+    private static final int CHILDREN = 256;
+
+    private ForkJoinPool pool;
+    private ParallelGroup group;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+        group = new ParallelGroup("group", pool);
+        group.setSplitThreshold(4);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void sleepAndPauseFromChildrenAreAppliedAfterTheTick() {
+        Task[] tasks = new Task[CHILDREN];
+        for (int i = 0; i < CHILDREN; i++) {
+            Task task = new Task("t" + i, group);
+            boolean sleep = i % 2 == 0;
+            task.setRunnable(() -> {
+                if(sleep) assertTrue(task.sleepUntil(task.getClock().nanoTime() + TimeUnit.SECONDS.toNanos(10)));
+                else task.runCommand(Group.Command.PAUSE);
+            });
+            tasks[i] = task;
+        }
+        assertEquals(CHILDREN, group.getActiveRunnables().size());
+
+        group.run();
+
+        assertEquals(0, group.getActiveRunnables().size());
+        assertEquals(CHILDREN / 2, group.getSleepingCount());
+        for (int i = 0; i < CHILDREN; i++) {
+            assertFalse(tasks[i].isRunning());
+            assertEquals(i % 2 == 0, tasks[i].isSleeping());
+        }
+    }
+
+    @Test
+    public void startFromChildrenRunsBeforeRunReturns() {
+        for (int i = 0; i < CHILDREN; i++) {
+            Task waiting = new Task("w" + i);
+            waiting.autoStart = false;
+            waiting.attachParent(group);
+            waiting.setRunnable(() -> {});
+
+            String key = waiting.getName();
+            new Task("t" + i, group).setRunnable(() -> assertTrue(group.runKeyedCommand(key, Group.Command.START)));
+        }
+        assertEquals(CHILDREN, group.getActiveRunnables().size());
+
+        group.run();
+
+        assertEquals(CHILDREN * 2, group.getActiveRunnables().size());
+        for (int i = 0; i < CHILDREN; i++)
+            assertTrue(group.isChildRunning("w" + i));
+    }
+
+    @Test
+    public void heldStartsRespectMaxActiveRunnables() {
+        group.setMaxActiveRunnables(CHILDREN);
+        for (int i = 0; i < CHILDREN; i++) {
+            Task waiting = new Task("w" + i);
+            waiting.autoStart = false;
+            waiting.attachParent(group);
+            waiting.setRunnable(() -> {});
+
+            String key = waiting.getName();
+            Task task = new Task("t" + i, group);
+            task.setRunnable(() -> {
+                task.runCommand(Group.Command.PAUSE);
+                group.runKeyedCommand(key, Group.Command.START);
+            });
+        }
+
+        group.run();
+
+        assertEquals(CHILDREN, group.getActiveRunnables().size());
+        for (int i = 0; i < CHILDREN; i++) {
+            assertFalse(group.isChildRunning("t" + i));
+            assertTrue(group.isChildRunning("w" + i));
+        }
+    }
+}